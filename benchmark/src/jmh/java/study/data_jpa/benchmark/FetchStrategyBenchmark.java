@@ -0,0 +1,40 @@
+package study.data_jpa.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.infra.Blackhole;
+import study.data_jpa.entity.Member;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// 회원 목록 + 팀 이름: fetch join vs @EntityGraph vs 지연 로딩(N+1)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class FetchStrategyBenchmark {
+
+    @Benchmark
+    public void fetchJoin(JpaBenchmarkState state, Blackhole bh) {
+        state.inTransaction(() -> consume(state.memberRepository.findMemberFetchJoin(), bh));
+    }
+
+    @Benchmark
+    public void entityGraph(JpaBenchmarkState state, Blackhole bh) {
+        state.inTransaction(() -> consume(state.memberRepository.findAll(), bh));
+    }
+
+    @Benchmark
+    public void lazyLoading(JpaBenchmarkState state, Blackhole bh) {
+        state.inTransaction(() -> consume(state.memberRepository.findMemberCustom(), bh));
+    }
+
+    private static Void consume(List<Member> members, Blackhole bh) {
+        for (Member member : members) {
+            bh.consume(member.getTeam().getName());
+        }
+        return null;
+    }
+
+}
@@ -0,0 +1,78 @@
+package study.data_jpa.benchmark;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.data_jpa.DataJpaApplication;
+import study.data_jpa.dto.MemberImportDto;
+import study.data_jpa.repository.MemberJpaRepository;
+import study.data_jpa.repository.MemberRepository;
+import study.data_jpa.service.MemberImportService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+// 임베디드 H2 위에 JPA 계층만 띄우고 데이터를 채워두는 공통 상태
+@State(Scope.Benchmark)
+public class JpaBenchmarkState {
+
+    @Param({"1000"})
+    public int memberCount;
+
+    @Param({"10"})
+    public int teamCount;
+
+    ConfigurableApplicationContext context;
+    MemberRepository memberRepository;
+    MemberJpaRepository memberJpaRepository;
+    TransactionTemplate readOnly;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(DataJpaApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(Map.of(
+                        "spring.datasource.url", "jdbc:h2:mem:benchmark;MODE=MySQL;DB_CLOSE_DELAY=-1",
+                        "spring.datasource.username", "sa",
+                        "spring.datasource.password", "",
+                        "spring.datasource.driver-class-name", "org.h2.Driver",
+                        "spring.jpa.properties.hibernate.dialect", "org.hibernate.dialect.H2Dialect",
+                        // 전략 자체를 비교하기 위해 캐시와 SQL 로깅은 끈다
+                        "spring.jpa.properties.hibernate.cache.use_second_level_cache", "false",
+                        "query-result-cache.enabled", "false",
+                        "decorator.datasource.enabled", "false",
+                        "logging.level.org.hibernate.SQL", "warn"))
+                .run();
+
+        memberRepository = context.getBean(MemberRepository.class);
+        memberJpaRepository = context.getBean(MemberJpaRepository.class);
+        readOnly = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnly.setReadOnly(true);
+
+        List<MemberImportDto> rows = new ArrayList<>(memberCount);
+        for (int i = 0; i < memberCount; i++) {
+            rows.add(new MemberImportDto("member" + i, i % 100, "team" + (i % teamCount)));
+        }
+        context.getBean(MemberImportService.class).importMembers(rows.iterator());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    <T> T inTransaction(Supplier<T> work) {
+        return readOnly.execute(status -> work.get());
+    }
+
+}
@@ -0,0 +1,43 @@
+package study.data_jpa.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import study.data_jpa.dto.MemberDto;
+
+import java.util.concurrent.TimeUnit;
+
+// /members 목록: 엔티티 조회 후 MemberDto::new 변환 vs DTO 직접 조회 (할당량은 gc 프로파일러 결과 참고)
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class MemberListBenchmark {
+
+    @Param({"20", "200"})
+    public int pageSize;
+
+    @Benchmark
+    public Page<MemberDto> entityMapping(JpaBenchmarkState state) {
+        return state.inTransaction(() -> state.memberRepository.findAll(PageRequest.of(1, pageSize))
+                .map(MemberDto::new));
+    }
+
+    // 기존 방식에서 teamName 까지 채우려면 팀 지연 로딩이 추가된다
+    @Benchmark
+    public Page<MemberDto> entityMappingWithTeamName(JpaBenchmarkState state) {
+        return state.inTransaction(() -> state.memberRepository.findAll(PageRequest.of(1, pageSize))
+                .map(m -> new MemberDto(m.getId(), m.getUsername(), m.getTeam() == null ? null : m.getTeam().getName())));
+    }
+
+    @Benchmark
+    public Page<MemberDto> dtoProjection(JpaBenchmarkState state) {
+        return state.inTransaction(() -> state.memberRepository.findMemberDtoPage(PageRequest.of(1, pageSize)));
+    }
+
+}
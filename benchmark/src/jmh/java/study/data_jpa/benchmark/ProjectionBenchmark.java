@@ -0,0 +1,67 @@
+package study.data_jpa.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.data.domain.PageRequest;
+import study.data_jpa.dto.MemberDto;
+import study.data_jpa.repository.MemberProjection;
+import study.data_jpa.repository.NestedClosedProjections;
+import study.data_jpa.repository.UsernameOnlyDto;
+
+import java.util.concurrent.TimeUnit;
+
+// 인터페이스 프로젝션 vs DTO 생성자 쿼리 vs 네이티브 프로젝션
+// 결과 크기가 아니라 조회 방식만 비교하도록 모두 같은 행(전체 회원)을 @CachedQuery 없는 Slice 로 읽는다
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ProjectionBenchmark {
+
+    @Benchmark
+    public void dtoConstructorQuery(JpaBenchmarkState state, Blackhole bh) {
+        state.inTransaction(() -> {
+            for (MemberDto dto : state.memberRepository.findMemberDtoSlice(allMembers(state))) {
+                bh.consume(dto.getTeamName());
+            }
+            return null;
+        });
+    }
+
+    @Benchmark
+    public void nativeProjection(JpaBenchmarkState state, Blackhole bh) {
+        state.inTransaction(() -> {
+            for (MemberProjection projection : state.memberRepository.findSliceByNativeProjection(allMembers(state))) {
+                bh.consume(projection.getTeamName());
+            }
+            return null;
+        });
+    }
+
+    @Benchmark
+    public void nestedInterfaceProjection(JpaBenchmarkState state, Blackhole bh) {
+        state.inTransaction(() -> {
+            for (NestedClosedProjections projection : state.memberRepository
+                    .findProjectionsBy(allMembers(state), NestedClosedProjections.class)) {
+                bh.consume(projection.getTeam().getName());
+            }
+            return null;
+        });
+    }
+
+    @Benchmark
+    public void classProjection(JpaBenchmarkState state, Blackhole bh) {
+        state.inTransaction(() -> {
+            for (UsernameOnlyDto dto : state.memberRepository.findProjectionsBy(allMembers(state), UsernameOnlyDto.class)) {
+                bh.consume(dto.getUsername());
+            }
+            return null;
+        });
+    }
+
+    private static PageRequest allMembers(JpaBenchmarkState state) {
+        return PageRequest.of(0, state.memberCount);
+    }
+
+}
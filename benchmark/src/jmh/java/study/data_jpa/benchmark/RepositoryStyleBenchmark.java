@@ -0,0 +1,41 @@
+package study.data_jpa.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// 순수 JPA 리포지토리(MemberJpaRepository) vs 스프링 데이터 JPA 쿼리 메서드
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RepositoryStyleBenchmark {
+
+    @Benchmark
+    public List<?> pureJpaNamedQuery(JpaBenchmarkState state) {
+        return state.inTransaction(() -> state.memberJpaRepository.findByUsername("member500"));
+    }
+
+    @Benchmark
+    public List<?> springDataNamedQuery(JpaBenchmarkState state) {
+        return state.inTransaction(() -> state.memberRepository.findByUsername("member500"));
+    }
+
+    @Benchmark
+    public List<?> springDataDerivedQuery(JpaBenchmarkState state) {
+        return state.inTransaction(() -> state.memberRepository.findListByUsername("member500"));
+    }
+
+    @Benchmark
+    public List<?> pureJpaJpqlQuery(JpaBenchmarkState state) {
+        return state.inTransaction(() -> state.memberJpaRepository.findByUsernameAndAgeGraterThen("member500", 0));
+    }
+
+    @Benchmark
+    public List<?> springDataDerivedTwoConditions(JpaBenchmarkState state) {
+        return state.inTransaction(() -> state.memberRepository.findByUsernameAndAgeGreaterThan("member500", 0));
+    }
+
+}
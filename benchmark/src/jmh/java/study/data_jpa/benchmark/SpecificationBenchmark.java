@@ -0,0 +1,30 @@
+package study.data_jpa.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import study.data_jpa.repository.MemberSpec;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// findAll(Specification) 의 Criteria 변환 vs 조건 모양별로 캐시된 JPQL (search)
+// 쿼리 자체는 같으므로 차이는 호출당 Criteria 생성/SQM 변환 비용이다 (-prof gc 의 alloc rate 도 같이 볼 것)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SpecificationBenchmark {
+
+    @Benchmark
+    public List<?> criteriaSpecification(JpaBenchmarkState state) {
+        return state.inTransaction(() -> state.memberRepository.findAll(
+                MemberSpec.teamName("team3").and(MemberSpec.username("member503"))));
+    }
+
+    @Benchmark
+    public List<?> compiledSpecification(JpaBenchmarkState state) {
+        return state.inTransaction(() -> state.memberRepository.search(
+                MemberSpec.teamName("team3").and(MemberSpec.username("member503"))));
+    }
+
+}
@@ -0,0 +1,10 @@
+package study.data_jpa.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+
+// @Async 는 스프링 부트의 applicationTaskExecutor 에서 실행 (가상 스레드 모드면 가상 스레드)
+@Configuration
+@EnableAsync
+public class AsyncConfig {
+}
@@ -0,0 +1,58 @@
+package study.data_jpa.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.springframework.context.annotation.Configuration;
+import study.data_jpa.entity.Member;
+import study.data_jpa.entity.Team;
+import study.data_jpa.entity.TeamAggregateListener;
+import study.data_jpa.entity.TeamMembersCacheEvictor;
+import study.data_jpa.repository.support.CollectionVersionListener;
+import study.data_jpa.repository.support.CountCache;
+import study.data_jpa.repository.support.QueryResultCache;
+import study.data_jpa.repository.support.QueryResultCacheEvictor;
+
+import java.util.Set;
+
+// 하이버네이트 이벤트 리스너 등록
+@Configuration
+@RequiredArgsConstructor
+public class HibernateListenerConfig {
+
+    private final EntityManagerFactory emf;
+    private final QueryResultCache queryResultCache;
+    private final CountCache countCache;
+
+    @PostConstruct
+    public void registerListeners() {
+        EventListenerRegistry registry = emf.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+
+        TeamMembersCacheEvictor teamMembersCacheEvictor = new TeamMembersCacheEvictor();
+        registry.appendListeners(EventType.POST_INSERT, teamMembersCacheEvictor);
+        registry.appendListeners(EventType.POST_UPDATE, teamMembersCacheEvictor);
+        registry.appendListeners(EventType.POST_DELETE, teamMembersCacheEvictor);
+
+        TeamAggregateListener teamAggregateListener = new TeamAggregateListener();
+        registry.appendListeners(EventType.POST_INSERT, teamAggregateListener);
+        registry.appendListeners(EventType.POST_UPDATE, teamAggregateListener);
+        registry.appendListeners(EventType.POST_DELETE, teamAggregateListener);
+
+        QueryResultCacheEvictor queryResultCacheEvictor = new QueryResultCacheEvictor(queryResultCache);
+        registry.appendListeners(EventType.POST_INSERT, queryResultCacheEvictor);
+        registry.appendListeners(EventType.POST_UPDATE, queryResultCacheEvictor);
+        registry.appendListeners(EventType.POST_DELETE, queryResultCacheEvictor);
+
+        // 회원 목록 본문에 팀 이름이 들어가므로 팀 변경도 목록 버전을 올린다
+        CollectionVersionListener collectionVersionListener = new CollectionVersionListener(countCache, Set.of(Member.class, Team.class));
+        registry.appendListeners(EventType.POST_INSERT, collectionVersionListener);
+        registry.appendListeners(EventType.POST_UPDATE, collectionVersionListener);
+        registry.appendListeners(EventType.POST_DELETE, collectionVersionListener);
+    }
+
+}
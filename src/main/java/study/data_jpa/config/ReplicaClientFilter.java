@@ -0,0 +1,32 @@
+package study.data_jpa.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+// read-your-writes 를 클라이언트 단위로 적용하기 위해 요청마다 클라이언트 키를 묶는다 (X-Client-Id, 없으면 IP)
+@Component
+@ConditionalOnProperty(name = "replica-datasource.enabled", havingValue = "true")
+public class ReplicaClientFilter extends OncePerRequestFilter {
+
+    static final String CLIENT_ID_HEADER = "X-Client-Id";
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String clientId = request.getHeader(CLIENT_ID_HEADER);
+        ReplicaRouting.bindClient(clientId != null ? clientId : request.getRemoteAddr());
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ReplicaRouting.clearClient();
+        }
+    }
+
+}
@@ -0,0 +1,50 @@
+package study.data_jpa.config;
+
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 현재 스레드의 쿼리를 replica 로 보내도 되는지 판단하는 상태
+ * - @Transactional(readOnly = true) 트랜잭션 안
+ * - 트랜잭션 밖에서 호출된 읽기 전용 힌트 리포지토리 메서드 (ReadOnlyQueryInterceptor)
+ * 같은 클라이언트의 최근 쓰기 여부(read-your-writes)는 ReplicaRoutingDataSource 가 clientKey 로 확인한다.
+ */
+public final class ReplicaRouting {
+
+    private static final ThreadLocal<Integer> readOnlyCalls = ThreadLocal.withInitial(() -> 0);
+    private static final ThreadLocal<String> clientKey = new ThreadLocal<>();
+
+    private ReplicaRouting() {
+    }
+
+    public static boolean isReadOnly() {
+        return TransactionSynchronizationManager.isCurrentTransactionReadOnly() || readOnlyCalls.get() > 0;
+    }
+
+    public static void enterReadOnly() {
+        readOnlyCalls.set(readOnlyCalls.get() + 1);
+    }
+
+    public static void exitReadOnly() {
+        int depth = readOnlyCalls.get() - 1;
+        if (depth == 0) {
+            readOnlyCalls.remove();
+        } else {
+            readOnlyCalls.set(depth);
+        }
+    }
+
+    public static void bindClient(String key) {
+        clientKey.set(key);
+    }
+
+    public static void clearClient() {
+        clientKey.remove();
+    }
+
+    // 요청 밖(배치, 테스트)에서는 스레드 단위로 구분
+    public static String clientKey() {
+        String key = clientKey.get();
+        return key != null ? key : "thread-" + Thread.currentThread().threadId();
+    }
+
+}
@@ -0,0 +1,113 @@
+package study.data_jpa.config;
+
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.github.gavlyukovskiy.boot.jdbc.decorator.DataSourceDecorator;
+import com.github.gavlyukovskiy.boot.jdbc.decorator.DecoratedDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * replica-datasource.enabled=true 일 때 스프링 부트가 만든 dataSource 를 primary 로 두고
+ * replica-datasource.urls 의 replica 풀들과 함께 ReplicaRoutingDataSource 로 감싼다.
+ * <p>
+ * dataSource 를 감싸는 순서 (BeanPostProcessor 의 Ordered, 안쪽부터)
+ * <ol>
+ *     <li>p6spy 데코레이터 (라이브러리 BeanPostProcessor)</li>
+ *     <li>VirtualThreadConfig 의 입장 제어 (ADMISSION_CONTROL_ORDER) - primary 풀 크기 기준</li>
+ *     <li>이 클래스의 라우팅 (ROUTING_ORDER) - replica 마다 p6spy, 입장 제어(replica 풀 크기 기준)를 직접 붙인다</li>
+ * </ol>
+ * replica 풀은 빈이 아니므로 p6spy(QueryCount, SlowQueryLog), Hikari 메트릭, 입장 제어를 여기서 직접 연결한다.
+ */
+@Configuration
+@ConditionalOnProperty(name = "replica-datasource.enabled", havingValue = "true")
+public class ReplicaRoutingConfig {
+
+    public static final int ROUTING_ORDER = Ordered.LOWEST_PRECEDENCE;
+
+    @Bean
+    public static BeanPostProcessor replicaRoutingDataSourcePostProcessor(
+            @Value("${replica-datasource.urls}") List<String> urls,
+            @Value("${replica-datasource.username:${spring.datasource.username}}") String username,
+            @Value("${replica-datasource.password:${spring.datasource.password:}}") String password,
+            @Value("${replica-datasource.driver-class-name:${spring.datasource.driver-class-name}}") String driverClassName,
+            @Value("${replica-datasource.maximum-pool-size:10}") int maximumPoolSize,
+            @Value("${replica-datasource.read-your-writes-window:2s}") Duration readYourWritesWindow,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+            @Value("${virtual-threads.admission.max-waiting:1000}") int maxWaiting,
+            @Value("${virtual-threads.admission.acquire-timeout-ms:3000}") long acquireTimeoutMillis,
+            ObjectProvider<DataSourceDecorator> decorators,
+            ObjectProvider<MeterRegistry> meterRegistry,
+            ObjectProvider<Ticker> windowTicker) {
+        return new RoutingPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource primary) || !"dataSource".equals(beanName)) {
+                    return bean;
+                }
+
+                List<DataSource> replicas = new ArrayList<>();
+                for (int i = 0; i < urls.size(); i++) {
+                    String poolName = "replica-" + i;
+                    HikariDataSource pool = DataSourceBuilder.create()
+                            .type(HikariDataSource.class)
+                            .url(urls.get(i))
+                            .username(username)
+                            .password(password)
+                            .driverClassName(driverClassName)
+                            .build();
+                    pool.setPoolName(poolName);
+                    pool.setMaximumPoolSize(maximumPoolSize);
+                    pool.setReadOnly(true);
+                    // hikaricp.connections.* {pool=replica-i} (RepositoryMetricsEndpoint 의 커넥션 획득 시간)
+                    meterRegistry.ifAvailable(registry -> pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+
+                    DataSource replica = pool;
+                    if (isDecorated(primary)) { // 데코레이터가 primary 에만 붙었으므로 replica 에도 같은 순서로 붙인다
+                        for (DataSourceDecorator decorator : decorators.orderedStream().toList()) {
+                            replica = decorator.decorate(poolName, replica);
+                        }
+                    }
+                    if (virtualThreads) {
+                        replica = new AdmissionControlDataSource(replica, maximumPoolSize, maxWaiting, acquireTimeoutMillis);
+                    }
+                    replicas.add(replica);
+                }
+                return ReplicaRoutingDataSource.lazy(new ReplicaRoutingDataSource(
+                        primary, replicas, readYourWritesWindow, windowTicker.getIfAvailable(Ticker::systemTicker)));
+            }
+        };
+    }
+
+    // 라이브러리 데코레이터가 이미 primary 를 감쌌는지 (우리 래퍼 안쪽까지 확인)
+    private static boolean isDecorated(DataSource dataSource) {
+        while (dataSource instanceof DelegatingDataSource delegating) {
+            dataSource = delegating.getTargetDataSource();
+        }
+        return dataSource instanceof DecoratedDataSource;
+    }
+
+    private abstract static class RoutingPostProcessor implements BeanPostProcessor, Ordered {
+
+        @Override
+        public int getOrder() {
+            return ROUTING_ORDER;
+        }
+
+    }
+
+}
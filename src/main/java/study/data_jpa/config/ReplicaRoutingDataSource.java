@@ -0,0 +1,148 @@
+package study.data_jpa.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 읽기 전용 작업은 replica 들에 라운드 로빈으로, 나머지는 primary 로 보낸다.
+ * - replica 커넥션을 얻지 못하면 primary 로 대신 처리
+ * - 쓰기 트랜잭션이 커밋되면 같은 클라이언트의 읽기는 readYourWritesWindow 동안 primary 로 (복제 지연 대비)
+ * 트랜잭션의 readOnly 여부는 커넥션을 얻은 뒤에 정해지므로 반드시 lazy() 로 감싸서 첫 쿼리 시점에 고르게 한다.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    static final String PRIMARY = "primary";
+
+    private final DataSource primary;
+    private final List<String> replicaKeys = new ArrayList<>();
+    private final AtomicInteger next = new AtomicInteger();
+    private final Cache<String, Boolean> recentWriters;
+
+    public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas, Duration readYourWritesWindow) {
+        this(primary, replicas, readYourWritesWindow, Ticker.systemTicker());
+    }
+
+    // windowTicker: readYourWritesWindow 를 재는 시계 (테스트에서 시간을 직접 흘려보내기 위해)
+    public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas, Duration readYourWritesWindow,
+                                    Ticker windowTicker) {
+        this.primary = primary;
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (int i = 0; i < replicas.size(); i++) {
+            String key = "replica-" + i;
+            targets.put(key, replicas.get(i));
+            replicaKeys.add(key);
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+
+        this.recentWriters = Caffeine.newBuilder()
+                .expireAfterWrite(readYourWritesWindow)
+                .maximumSize(100_000)
+                .ticker(windowTicker)
+                .build();
+    }
+
+    public static DataSource lazy(ReplicaRoutingDataSource routingDataSource) {
+        return new LazyRoutingDataSource(routingDataSource);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (replicaKeys.isEmpty() || !ReplicaRouting.isReadOnly()
+                || recentWriters.getIfPresent(ReplicaRouting.clientKey()) != null) {
+            return PRIMARY;
+        }
+        return replicaKeys.get(Math.floorMod(next.getAndIncrement(), replicaKeys.size()));
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Object key = determineCurrentLookupKey();
+        if (PRIMARY.equals(key)) {
+            recordWriteOnCommit();
+            return primary.getConnection();
+        }
+        try {
+            return getResolvedDataSources().get(key).getConnection();
+        } catch (SQLException e) {
+            log.warn("{} 커넥션 획득 실패, primary 로 대신 처리합니다: {}", key, e.getMessage());
+            return primary.getConnection();
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return getConnection(); // 계정은 풀 설정을 따른다
+    }
+
+    public DataSource getPrimary() {
+        return primary;
+    }
+
+    // 쓰기 트랜잭션이 커밋된 뒤부터 같은 클라이언트의 읽기를 primary 에 고정
+    private void recordWriteOnCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()
+                || TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return;
+        }
+        String client = ReplicaRouting.clientKey();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                recentWriters.put(client, Boolean.TRUE);
+            }
+        });
+    }
+
+    // 풀은 p6spy, 입장 제어로 감싸져 있을 수 있으므로 unwrap 해서 닫는다
+    void close() {
+        getResolvedDataSources().values().forEach(dataSource -> {
+            try {
+                if (dataSource.isWrapperFor(Closeable.class)) {
+                    dataSource.unwrap(Closeable.class).close();
+                }
+            } catch (SQLException | IOException e) {
+                log.warn("DataSource 종료 실패", e);
+            }
+        });
+    }
+
+    // 첫 쿼리까지 커넥션 획득을 미루고, 종료 시 내부 풀을 모두 닫는다 (빈 destroy 메서드 추론용 close)
+    private static class LazyRoutingDataSource extends LazyConnectionDataSourceProxy implements Closeable {
+
+        private final ReplicaRoutingDataSource routingDataSource;
+
+        LazyRoutingDataSource(ReplicaRoutingDataSource routingDataSource) {
+            super(routingDataSource);
+            this.routingDataSource = routingDataSource;
+        }
+
+        @Override
+        public void close() {
+            routingDataSource.close();
+        }
+
+    }
+
+}
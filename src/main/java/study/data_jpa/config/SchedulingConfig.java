@@ -0,0 +1,10 @@
+package study.data_jpa.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// 주기 작업 (TeamAggregateService.reconcile)
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
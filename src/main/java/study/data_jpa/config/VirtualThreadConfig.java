@@ -0,0 +1,49 @@
+package study.data_jpa.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import javax.sql.DataSource;
+
+/**
+ * spring.threads.virtual.enabled=true 일 때 (톰캣 요청 처리, @Async, 스케줄러가 가상 스레드로 동작)
+ * 커넥션 풀 앞에 입장 제어를 둔다.
+ * replica 라우팅(ReplicaRoutingConfig)보다 먼저 실행되어 primary 풀만 primary 풀 크기로 감싼다 (replica 는 라우팅 쪽에서 각자의 크기로)
+ */
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadConfig {
+
+    public static final int ADMISSION_CONTROL_ORDER = ReplicaRoutingConfig.ROUTING_ORDER - 1;
+
+    @Bean
+    public static BeanPostProcessor admissionControlDataSourcePostProcessor(
+            @Value("${spring.datasource.hikari.maximum-pool-size:10}") int maxConnections,
+            @Value("${virtual-threads.admission.max-waiting:1000}") int maxWaiting,
+            @Value("${virtual-threads.admission.acquire-timeout-ms:3000}") long acquireTimeoutMillis) {
+        return new AdmissionControlPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && "dataSource".equals(beanName)) {
+                    return new AdmissionControlDataSource(dataSource, maxConnections, maxWaiting, acquireTimeoutMillis);
+                }
+                return bean;
+            }
+        };
+    }
+
+    private abstract static class AdmissionControlPostProcessor implements BeanPostProcessor, Ordered {
+
+        @Override
+        public int getOrder() {
+            return ADMISSION_CONTROL_ORDER;
+        }
+
+    }
+
+}
@@ -1,38 +1,197 @@
 package study.data_jpa.controller;
 
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.*;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import study.data_jpa.dto.MemberDto;
+import study.data_jpa.dto.MemberImportDto;
+import study.data_jpa.dto.MemberImportResult;
+import study.data_jpa.dto.MemberVersionDto;
+import study.data_jpa.dto.ScrollDto;
 import study.data_jpa.entity.Member;
 import study.data_jpa.repository.MemberRepository;
+import study.data_jpa.repository.support.CountCache;
+import study.data_jpa.repository.support.PagingMode;
+import study.data_jpa.service.ExportFormat;
+import study.data_jpa.service.MemberExportService;
+import study.data_jpa.service.MemberImportService;
+import study.data_jpa.service.MemberLookupService;
+import study.data_jpa.service.MemberSearchService;
+import study.data_jpa.service.UsernameSearchType;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
 
 @RestController
 @RequiredArgsConstructor
 public class MemberController {
 
+    private static final int MAX_SCROLL_SIZE = 2000; // spring.data.web.pageable.max-page-size 와 동일
+    private static final int MAX_LOOKUP_IDS = 1000;
+
     private final MemberRepository memberRepository;
+    private final CountCache countCache;
+    private final MemberLookupService memberLookupService;
+    private final MemberSearchService memberSearchService;
+    private final MemberExportService memberExportService;
+    private final MemberImportService memberImportService;
+    private final ObjectMapper objectMapper;
 
+    // 버전만 먼저 조회해서 바뀐 게 없으면 304 (본문 조회/직렬화 생략)
     @GetMapping("/members/{id}")
-    public String findMember(@PathVariable("id") Long id) {
-        Member member = memberRepository.findById(id).get();
+    public String findMember(@PathVariable("id") Long id, WebRequest request) {
+        MemberVersionDto version = memberRepository.findVersionById(id).orElseThrow(() -> notFound(id));
+        if (request.checkNotModified(version.eTag(), version.lastModified())) {
+            return null;
+        }
+        MemberDto member = memberLookupService.find(id, version.getVersion());
+        if (member == null) {
+            throw notFound(id);
+        }
         return member.getUsername();
     }
 
+    // MemberDtoConverter 가 id 를 회원으로 변환 (요청이 몰려도 같은 id 는 DB 를 한 번만 조회)
     @GetMapping("/members2/{id}")
-    public String findMember2(@PathVariable("id") Member member) {
+    public String findMember2(@PathVariable("id") MemberDto member) {
         return member.getUsername();
     }
 
+    // /members?ids=1,2,3 : 캐시에 없는 id 만 한 번의 IN 쿼리로
+    @GetMapping(value = "/members", params = "ids")
+    public List<MemberDto> findMembers(@RequestParam("ids") List<Long> ids) {
+        if (ids.size() > MAX_LOOKUP_IDS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "ids 는 최대 " + MAX_LOOKUP_IDS + "개까지 조회할 수 있습니다");
+        }
+        return memberLookupService.findAll(ids);
+    }
+
+    // 목록 전체의 버전으로 ETag 를 만든다 (페이지/정렬은 URL 이 구분)
     @GetMapping("/members")
-    public Page<MemberDto> list(@PageableDefault(size = 5) Pageable pageable) {
-        return memberRepository.findAll(pageable)
-                .map(MemberDto::new);
+    public Slice<MemberDto> list(@PageableDefault(size = 5) Pageable pageable,
+                                 @RequestParam(value = "mode", defaultValue = "PAGE") PagingMode mode,
+                                 WebRequest request) {
+        // 이 인스턴스의 목록 버전 + 인덱스 한 번으로 읽는 공유 버전(마지막 수정 시각), count 캐시도 같은 버전 기준
+        if (request.checkNotModified(countCache.eTag(memberRepository.findLastModifiedDate()))) {
+            return null;
+        }
+        return countCache.fetch(mode, pageable,
+                memberRepository::findMemberDtoPage,
+                memberRepository::findMemberDtoSlice,
+                "Member.count", List.of(), memberRepository::count);
+    }
+
+    // /members/search?q=mem&type=PREFIX, /members/search?q=kim%20lee&type=TOKEN
+    @GetMapping("/members/search")
+    public Slice<MemberDto> search(@RequestParam("q") String query,
+                                   @RequestParam(value = "type", defaultValue = "PREFIX") UsernameSearchType type,
+                                   @PageableDefault(size = 20) Pageable pageable) {
+        try {
+            return memberSearchService.search(type, query, pageable);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    // OFFSET 없이 마지막 (정렬 키, member_id) 이후부터 조회하므로 뒤쪽 페이지도 첫 페이지와 비용이 같다
+    @GetMapping("/members/scroll")
+    public ScrollDto<MemberDto> scroll(@RequestParam(value = "token", required = false) String token,
+                                       @RequestParam(value = "size", defaultValue = "5") int size,
+                                       @RequestParam(value = "sort", defaultValue = "username") String property,
+                                       @RequestParam(value = "direction", defaultValue = "DESC") Sort.Direction direction) {
+        ScrollPosition position = ScrollPosition.keyset();
+        boolean inNulls = false;
+        Sort sort;
+        try {
+            if (token != null) {
+                MemberScrollToken scrollToken = MemberScrollToken.decode(token);
+                property = scrollToken.getProperty(); // 정렬 기준은 토큰을 따라야 이어서 조회할 수 있다
+                direction = scrollToken.getDirection();
+                position = scrollToken.position();
+                inNulls = scrollToken.isInNulls();
+                sort = scrollToken.sort();
+            } else {
+                sort = MemberScrollToken.sort(property, direction);
+            }
+        } catch (IllegalArgumentException e) { // 잘못된 토큰, 지원하지 않는 정렬
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+
+        Limit limit = Limit.of(Math.max(1, Math.min(size, MAX_SCROLL_SIZE)));
+        Window<Member> window;
+        Window<Member> nulls = null;
+        if (inNulls) {
+            window = memberRepository.findByUsernameIsNull(position, limit, sort);
+        } else if (MemberScrollToken.isNullable(property)) {
+            // null 인 회원은 값이 있는 회원을 다 본 뒤 id 순으로 이어 붙인다 (남은 자리가 없으면 있는지만 확인)
+            window = memberRepository.findByUsernameIsNotNull(position, limit, sort);
+            if (!window.hasNext()) {
+                int remaining = limit.max() - window.size();
+                nulls = memberRepository.findByUsernameIsNull(
+                        ScrollPosition.keyset(), Limit.of(Math.max(1, remaining)), MemberScrollToken.nullsSort(direction));
+            }
+        } else {
+            window = memberRepository.findAllBy(position, limit, sort);
+        }
+
+        List<Member> members = new ArrayList<>(window.getContent());
+        boolean hasNext = window.hasNext();
+        Window<Member> last = window;
+        if (nulls != null && !nulls.isEmpty()) {
+            if (members.size() < limit.max()) {
+                members.addAll(nulls.getContent());
+                hasNext = nulls.hasNext();
+                last = nulls;
+            } else {
+                hasNext = true; // 다음 요청은 값이 있는 회원이 더 없으므로 null 구간부터 읽는다
+            }
+        }
+
+        String nextToken = null;
+        if (hasNext && !last.isEmpty()) {
+            nextToken = MemberScrollToken.encode(
+                    (KeysetScrollPosition) last.positionAt(last.size() - 1), property, direction);
+        }
+        return new ScrollDto<>(members.stream().map(MemberDto::new).toList(), nextToken, hasNext);
+    }
+
+    // 전체 회원을 List로 모으지 않고 한 줄씩 흘려보내므로 회원 수와 무관하게 힙 사용량이 일정하다
+    @GetMapping("/members/export")
+    public ResponseEntity<StreamingResponseBody> export(
+            @RequestParam(value = "format", defaultValue = "NDJSON") ExportFormat format) {
+        StreamingResponseBody body = out -> memberExportService.export(out, format);
+        return ResponseEntity.ok()
+                .contentType(format.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=members." + format.getExtension())
+                .body(body);
+    }
+
+    // {"username":"member1","age":10,"teamName":"teamA"} 형태의 NDJSON 을 읽는 대로 청크 단위로 저장
+    @PostMapping(value = "/members/import", consumes = {"application/x-ndjson", "application/json"})
+    public MemberImportResult importMembers(InputStream body) throws IOException {
+        try (MappingIterator<MemberImportDto> members = objectMapper.readerFor(MemberImportDto.class).readValues(body)) {
+            return memberImportService.importMembers(members);
+        }
+    }
+
+    private static ResponseStatusException notFound(Long id) {
+        return new ResponseStatusException(HttpStatus.NOT_FOUND, "회원이 없습니다: " + id);
     }
 
 //    @PostConstruct
@@ -0,0 +1,30 @@
+package study.data_jpa.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import study.data_jpa.dto.MemberDto;
+import study.data_jpa.service.MemberLookupService;
+
+/**
+ * 도메인 클래스 컨버터처럼 경로 변수의 id 를 회원으로 바꾸되, findById 대신 MemberLookupService 캐시를 거친다.
+ * (스프링 부트가 Converter 빈을 MVC 변환 서비스에 자동 등록)
+ */
+@Component
+@RequiredArgsConstructor
+public class MemberDtoConverter implements Converter<String, MemberDto> {
+
+    private final MemberLookupService memberLookupService;
+
+    @Override
+    public MemberDto convert(String source) {
+        MemberDto member = memberLookupService.find(Long.valueOf(source));
+        if (member == null) { // null 을 돌려주면 필수 경로 변수 누락으로 400 이 된다
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "회원이 없습니다: " + source);
+        }
+        return member;
+    }
+
+}
@@ -0,0 +1,128 @@
+package study.data_jpa.controller;
+
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * keyset 페이징용 continuation token
+ * 마지막 행의 (정렬 키, member_id)를 "정렬필드,방향,id,값" 형태로 담아 Base64(URL-safe)로 인코딩한다.
+ * null 은 keyset 비교(<, >)를 할 수 없으므로 정렬 키가 null 인 회원은 방향과 무관하게 맨 뒤에 id 순으로 둔다.
+ * 그 구간의 토큰은 값을 빼고 "정렬필드,방향,id" 로 표시한다 (빈 문자열 "정렬필드,방향,id," 와 구분된다).
+ */
+public class MemberScrollToken {
+
+    public static final String ID = "id";
+    private static final Set<String> SORT_PROPERTIES = Set.of(ID, "username", "age");
+    private static final Set<String> NULLABLE_PROPERTIES = Set.of("username");
+
+    private final String property;
+    private final Sort.Direction direction;
+    private final Long lastId;
+    private final Object lastValue;
+
+    private MemberScrollToken(String property, Sort.Direction direction, Long lastId, Object lastValue) {
+        this.property = property;
+        this.direction = direction;
+        this.lastId = lastId;
+        this.lastValue = lastValue;
+    }
+
+    public static Sort sort(String property, Sort.Direction direction) {
+        checkProperty(property);
+        if (ID.equals(property)) {
+            return Sort.by(direction, ID);
+        }
+        return Sort.by(direction, property).and(Sort.by(direction, ID)); // id를 tie-breaker로 붙여 정렬을 유일하게 만든다
+    }
+
+    // null 정렬 키 구간(id 로만 정렬)
+    public static Sort nullsSort(Sort.Direction direction) {
+        return Sort.by(direction, ID);
+    }
+
+    public static boolean isNullable(String property) {
+        return NULLABLE_PROPERTIES.contains(property);
+    }
+
+    public static String encode(KeysetScrollPosition position, String property, Sort.Direction direction) {
+        Map<String, ?> keys = position.getKeys();
+        Object lastId = keys.get(ID);
+        Object lastValue = ID.equals(property) ? lastId : keys.get(property);
+        if (lastId == null || (lastValue == null && !isNullable(property))) {
+            throw new IllegalArgumentException(property + " 값이 없는 위치는 토큰으로 만들 수 없습니다");
+        }
+        String raw = property + "," + direction.name() + "," + lastId + (lastValue == null ? "" : "," + lastValue);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static MemberScrollToken decode(String token) {
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("잘못된 scroll token 입니다: " + token, e);
+        }
+
+        String[] parts = raw.split(",", 4); // username 안의 ','를 보존하기 위해 값은 마지막에 둔다
+        if (parts.length < 3) {
+            throw new IllegalArgumentException("잘못된 scroll token 입니다: " + token);
+        }
+
+        String property = parts[0];
+        checkProperty(property);
+        if (parts.length == 3 && !isNullable(property)) {
+            throw new IllegalArgumentException("잘못된 scroll token 입니다: " + token);
+        }
+        try {
+            Long lastId = Long.valueOf(parts[2]);
+            Object lastValue = parts.length == 3 ? null : switch (property) {
+                case ID -> lastId;
+                case "age" -> Integer.valueOf(parts[3]);
+                default -> parts[3];
+            };
+            return new MemberScrollToken(property, Sort.Direction.valueOf(parts[1]), lastId, lastValue);
+        } catch (IllegalArgumentException e) { // NumberFormatException, Direction.valueOf
+            throw new IllegalArgumentException("잘못된 scroll token 입니다: " + token, e);
+        }
+    }
+
+    public String getProperty() {
+        return property;
+    }
+
+    public Sort.Direction getDirection() {
+        return direction;
+    }
+
+    // 정렬 키가 null 인 회원들 사이를 조회하는 중인지
+    public boolean isInNulls() {
+        return lastValue == null;
+    }
+
+    public Sort sort() {
+        return isInNulls() ? nullsSort(direction) : sort(property, direction);
+    }
+
+    public ScrollPosition position() {
+        Map<String, Object> keys = new LinkedHashMap<>();
+        if (!ID.equals(property) && !isInNulls()) {
+            keys.put(property, lastValue);
+        }
+        keys.put(ID, lastId);
+        return ScrollPosition.forward(keys);
+    }
+
+    private static void checkProperty(String property) {
+        if (!SORT_PROPERTIES.contains(property)) {
+            throw new IllegalArgumentException("정렬할 수 없는 필드입니다: " + property);
+        }
+    }
+
+}
@@ -0,0 +1,18 @@
+package study.data_jpa.dto;
+
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+public class ItemBulkInsertResult {
+
+    private final List<String> insertedIds;
+    private final List<String> duplicateIds; // 이미 DB에 있거나 요청 안에서 중복된 id
+
+    public ItemBulkInsertResult(List<String> insertedIds, List<String> duplicateIds) {
+        this.insertedIds = insertedIds;
+        this.duplicateIds = duplicateIds;
+    }
+
+}
@@ -1,14 +1,15 @@
 package study.data_jpa.dto;
 
-import lombok.Data;
+import lombok.Value;
 import study.data_jpa.entity.Member;
 
-@Data
+// 캐시(@CachedQuery, MemberLookupService)에서 여러 요청이 같은 인스턴스를 공유하므로 불변
+@Value
 public class MemberDto {
 
-    private Long id;
-    private String username;
-    private String teamName;
+    Long id;
+    String username;
+    String teamName;
 
     public MemberDto(Long id, String username, String teamName) {
         this.id = id;
@@ -19,6 +20,7 @@ public class MemberDto {
     public MemberDto(Member member) {
         this.id = member.getId();
         this.username = member.getUsername();
+        this.teamName = null;
     }
 
 }
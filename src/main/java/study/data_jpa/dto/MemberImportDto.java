@@ -0,0 +1,20 @@
+package study.data_jpa.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+public class MemberImportDto {
+
+    private String username;
+    private int age;
+    private String teamName;
+
+    public MemberImportDto(String username, int age, String teamName) {
+        this.username = username;
+        this.age = age;
+        this.teamName = teamName;
+    }
+
+}
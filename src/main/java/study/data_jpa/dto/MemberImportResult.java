@@ -0,0 +1,22 @@
+package study.data_jpa.dto;
+
+import lombok.Data;
+
+@Data
+public class MemberImportResult {
+
+    private long importedMembers;
+    private long createdTeams;
+    private long elapsedMillis;
+
+    public MemberImportResult(long importedMembers, long createdTeams, long elapsedMillis) {
+        this.importedMembers = importedMembers;
+        this.createdTeams = createdTeams;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public double getRowsPerSecond() {
+        return elapsedMillis == 0 ? importedMembers : importedMembers * 1000.0 / elapsedMillis;
+    }
+
+}
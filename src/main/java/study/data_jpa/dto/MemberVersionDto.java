@@ -0,0 +1,32 @@
+package study.data_jpa.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+// 조건부 GET 용 회원 버전 (본문 없이 version, lastModifiedDate 만 조회)
+@Data
+public class MemberVersionDto {
+
+    private Long id;
+    private Long version;
+    private LocalDateTime lastModifiedDate;
+
+    public MemberVersionDto(Long id, Long version, LocalDateTime lastModifiedDate) {
+        this.id = id;
+        this.version = version;
+        this.lastModifiedDate = lastModifiedDate;
+    }
+
+    // 벌크 업데이트도 @Version 은 올리므로 ETag 는 version 기준
+    public String eTag() {
+        return "\"" + id + "-" + version + "\"";
+    }
+
+    // Last-Modified 는 초 단위라 같은 초 안의 변경은 ETag 로만 구분된다. 없으면 -1
+    public long lastModified() {
+        return lastModifiedDate == null ? -1 : lastModifiedDate.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+}
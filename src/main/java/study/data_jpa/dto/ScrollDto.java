@@ -0,0 +1,20 @@
+package study.data_jpa.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class ScrollDto<T> {
+
+    private List<T> content;
+    private String nextToken;
+    private boolean hasNext;
+
+    public ScrollDto(List<T> content, String nextToken, boolean hasNext) {
+        this.content = content;
+        this.nextToken = nextToken;
+        this.hasNext = hasNext;
+    }
+
+}
@@ -0,0 +1,26 @@
+package study.data_jpa.dto;
+
+import lombok.Data;
+
+@Data
+public class TeamAggregateDto {
+
+    private Long teamId;
+    private String teamName;
+    private long memberCount;
+    private long ageSum;
+    private double ageAverage;
+    private Integer ageMin;
+    private Integer ageMax;
+
+    public TeamAggregateDto(Long teamId, String teamName, long memberCount, long ageSum, Integer ageMin, Integer ageMax) {
+        this.teamId = teamId;
+        this.teamName = teamName;
+        this.memberCount = memberCount;
+        this.ageSum = ageSum;
+        this.ageAverage = memberCount == 0 ? 0 : (double) ageSum / memberCount;
+        this.ageMin = ageMin;
+        this.ageMax = ageMax;
+    }
+
+}
@@ -0,0 +1,25 @@
+package study.data_jpa.dto;
+
+import lombok.Data;
+
+// MemberLookupService 캐시 적재용 (팀 이름까지 한 번에, 팀 엔티티는 읽지 않는다)
+@Data
+public class VersionedMemberDto {
+
+    private Long id;
+    private String username;
+    private String teamName;
+    private Long version;
+
+    public VersionedMemberDto(Long id, String username, String teamName, Long version) {
+        this.id = id;
+        this.username = username;
+        this.teamName = teamName;
+        this.version = version;
+    }
+
+    public MemberDto toMemberDto() {
+        return new MemberDto(id, username, teamName);
+    }
+
+}
@@ -3,6 +3,9 @@ package study.data_jpa.entity;
 import jakarta.persistence.*;
 import lombok.*;
 
+import java.util.HashSet;
+import java.util.Set;
+
 @Entity
 
 @Getter @Setter
@@ -12,24 +15,47 @@ import lombok.*;
         name = "Member.findByUsername",
         query = "select m from Member m where m.username = :username"
 )
+@Table(indexes = {
+        @Index(name = "idx_member_username", columnList = "username"),        // 정확히 일치 (findByUsername 등)
+        @Index(name = "idx_member_username_key", columnList = "username_key"), // 대소문자 무시 prefix 검색
+        @Index(name = "idx_member_last_modified_date", columnList = "last_modified_date") // 목록 ETag (max 만 읽는다)
+})
 public class Member extends BaseEntity{
 
-    @Id @GeneratedValue
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "member_seq_generator")
+    @SequenceGenerator(name = "member_seq_generator", sequenceName = "member_seq", allocationSize = 100) // id를 100개씩 미리 할당 (pooled)
     @Column(name = "member_id")
     private Long id;
     private String username;
     private int age;
 
+    // 검색용 키, username 을 바꿀 때 함께 맞춘다 (UsernameSearch 참고)
+    @Setter(AccessLevel.NONE)
+    @Column(name = "username_key")
+    private String usernameKey;
+
+    @Setter(AccessLevel.NONE)
+    @ElementCollection
+    @CollectionTable(name = "member_username_token", joinColumns = @JoinColumn(name = "member_id"),
+            indexes = @Index(name = "idx_member_username_token", columnList = "token, member_id")) // 토큰으로 회원 찾기
+    @Column(name = "token")
+    private Set<String> usernameTokens = new HashSet<>();
+
+    @Version
+    @Setter(AccessLevel.NONE)
+    private Long version; // 낙관적 락, 수정될 때마다 하이버네이트가 1씩 올린다
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "team_id")
     private Team team;
 
     public Member(String username) {
-        this.username = username;
+        setUsername(username);
     }
 
     public Member(String username, int age, Team team) {
-        this.username = username;
+        setUsername(username);
         this.age = age;
         if (team != null) {
             changeTeam(team);
@@ -37,13 +63,29 @@ public class Member extends BaseEntity{
     }
 
     public Member(String username, int age) {
-        this.username = username;
+        setUsername(username);
         this.age = age;
     }
 
+    // 벌크 업데이트로 username 을 바꾸면 검색 키가 어긋나므로 엔티티를 통해서만 바꾼다
+    public void setUsername(String username) {
+        this.username = username;
+        this.usernameKey = UsernameSearch.key(username);
+        Set<String> tokens = UsernameSearch.tokens(username);
+        if (!usernameTokens.equals(tokens)) { // 같으면 토큰 테이블은 건드리지 않는다
+            usernameTokens.retainAll(tokens);
+            usernameTokens.addAll(tokens);
+        }
+    }
+
+    // 팀의 members 컬렉션은 이미 로딩된 경우에만 맞춰준다 (Team.addMember / removeMember 참고)
     public void changeTeam(Team team) {
+        Team previous = this.team;
         this.team = team;
-        team.getMembers().add(this);
+        if (previous != null && previous != team) {
+            previous.removeMember(this);
+        }
+        team.addMember(this);
     }
 
 }
\ No newline at end of file
@@ -5,10 +5,17 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.ToString;
+import org.hibernate.Hibernate;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.OptimisticLock;
 
 import java.util.ArrayList;
 import java.util.List;
 
+import static lombok.AccessLevel.NONE;
 import static lombok.AccessLevel.PROTECTED;
 
 @Entity
@@ -16,14 +23,43 @@ import static lombok.AccessLevel.PROTECTED;
 @Setter
 @NoArgsConstructor(access = PROTECTED)
 @ToString(of = {"id", "name"})
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE) // 2차 캐시, 리전 설정은 application.conf
 public class Team {
 
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "team_seq_generator")
+    @SequenceGenerator(name = "team_seq_generator", sequenceName = "team_seq", allocationSize = 100)
     @Column(name = "team_id")
     private Long id;
     private String name;
 
+    @Version
+    @Setter(NONE)
+    private Long version;
+
+    // 회원 집계 (비정규화), TeamAggregateListener 와 TeamAggregateService 가 SQL 로만 갱신한다
+    @Setter(NONE)
+    @ColumnDefault("0")
+    @Column(insertable = false, updatable = false)
+    private long memberCount;
+
+    @Setter(NONE)
+    @ColumnDefault("0")
+    @Column(insertable = false, updatable = false)
+    private long ageSum;
+
+    @Setter(NONE)
+    @Column(insertable = false, updatable = false)
+    private Integer ageMin; // 회원이 없으면 null
+
+    @Setter(NONE)
+    @Column(insertable = false, updatable = false)
+    private Integer ageMax;
+
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE) // 회원 id 목록만 캐시, 변경 시 TeamMembersCacheEvictor 가 무효화
+    @OptimisticLock(excluded = true) // 회원이 들어오고 나갈 때마다 팀 버전이 올라가 충돌이 나지 않도록
+    @BatchSize(size = 20) // 팀마다 회원이 많으므로 전역값(default_batch_fetch_size)보다 작게, 한 번에 20개 팀의 회원을 로딩
     @OneToMany(mappedBy = "team")
     private List<Member> members = new ArrayList<>();
 
@@ -31,4 +67,27 @@ public class Team {
         this.name = name;
     }
 
+    public double getAgeAverage() {
+        return memberCount == 0 ? 0 : (double) ageSum / memberCount;
+    }
+
+    /**
+     * 연관관계의 주인은 Member.team 이므로 members 는 메모리 상태만 맞추면 된다.
+     * 로딩되지 않은 컬렉션에 contains 나 remove 를 호출하면 팀의 회원 전체를 조회하므로 피한다.
+     * 역방향 bag 의 add 는 하이버네이트가 초기화 없이 큐에 쌓아 두었다가 나중에 로딩될 때 반영한다.
+     */
+    void addMember(Member member) {
+        if (!Hibernate.isInitialized(members)) {
+            members.add(member);
+        } else if (!members.contains(member)) {
+            members.add(member);
+        }
+    }
+
+    void removeMember(Member member) {
+        if (Hibernate.isInitialized(members)) {
+            members.remove(member);
+        } // 로딩되지 않았다면 나중에 DB(member.team_id) 기준으로 채워진다
+    }
+
 }
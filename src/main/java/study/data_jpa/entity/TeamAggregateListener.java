@@ -0,0 +1,215 @@
+package study.data_jpa.entity;
+
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.action.spi.BeforeTransactionCompletionProcess;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+
+import java.sql.PreparedStatement;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 회원이 생성/삭제되거나 팀/나이가 바뀔 때 Team 의 집계 컬럼(member_count, age_sum, age_min, age_max)을 증분으로 갱신한다.
+ * 트랜잭션 동안 팀별 변화량만 모아 두었다가 flush 가 끝난 뒤 커밋 직전에 팀마다 한 번씩 반영한다.
+ * age_min/age_max 는 값이 빠질 때 증분으로 알 수 없으므로 그 팀만 member 에서 다시 계산한다 (team_id 인덱스 범위).
+ */
+public class TeamAggregateListener implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+    // 팀 하나를 member 기준으로 다시 계산 (뒤에 where 절을 붙여 쓴다)
+    public static final String RECOMPUTE_ALL_COLUMNS = "update team t set"
+            + " member_count = (select count(*) from member m where m.team_id = t.team_id),"
+            + " age_sum = (select coalesce(sum(m.age), 0) from member m where m.team_id = t.team_id),"
+            + " age_min = (select min(m.age) from member m where m.team_id = t.team_id),"
+            + " age_max = (select max(m.age) from member m where m.team_id = t.team_id)";
+
+    private static final String INCREMENT =
+            "update team set member_count = member_count + ?, age_sum = age_sum + ? where team_id = ?";
+    private static final String WIDEN_MIN_MAX =
+            "update team set age_min = least(coalesce(age_min, ?), ?), age_max = greatest(coalesce(age_max, ?), ?) where team_id = ?";
+    private static final String RECOMPUTE_MIN_MAX = "update team t set"
+            + " age_min = (select min(m.age) from member m where m.team_id = t.team_id),"
+            + " age_max = (select max(m.age) from member m where m.team_id = t.team_id)"
+            + " where t.team_id = ?";
+
+    private final Map<EventSource, Pending> pendingBySession = new ConcurrentHashMap<>();
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (!(event.getEntity() instanceof Member)) {
+            return;
+        }
+        Object teamId = TeamMembersCacheEvictor.teamId(event.getPersister(), event.getState());
+        if (teamId != null) {
+            pending(event.getSession()).delta(teamId).add(age(event.getPersister(), event.getState()));
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (!(event.getEntity() instanceof Member)) {
+            return;
+        }
+
+        EntityPersister persister = event.getPersister();
+        Object newTeamId = TeamMembersCacheEvictor.teamId(persister, event.getState());
+        if (event.getOldState() == null) { // 이전 상태를 모르면 새 팀만 다시 계산 (이전 팀은 정합성 작업이 맞춘다)
+            if (newTeamId != null) {
+                pending(event.getSession()).delta(newTeamId).recomputeAll = true;
+            }
+            return;
+        }
+
+        Object oldTeamId = TeamMembersCacheEvictor.teamId(persister, event.getOldState());
+        int oldAge = age(persister, event.getOldState());
+        int newAge = age(persister, event.getState());
+        if (Objects.equals(oldTeamId, newTeamId) && oldAge == newAge) {
+            return;
+        }
+
+        Pending pending = pending(event.getSession());
+        if (!Objects.equals(oldTeamId, newTeamId)) { // 팀 이동
+            if (oldTeamId != null) {
+                pending.delta(oldTeamId).remove(oldAge);
+            }
+            if (newTeamId != null) {
+                pending.delta(newTeamId).add(newAge);
+            }
+        } else if (newTeamId != null) { // 같은 팀에서 나이만 변경
+            Delta delta = pending.delta(newTeamId);
+            delta.ageSum += newAge - oldAge;
+            delta.recomputeMinMax = true;
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (!(event.getEntity() instanceof Member)) {
+            return;
+        }
+        Object teamId = TeamMembersCacheEvictor.teamId(event.getPersister(), event.getDeletedState());
+        if (teamId != null) {
+            pending(event.getSession()).delta(teamId).remove(age(event.getPersister(), event.getDeletedState()));
+        }
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+
+    private static int age(EntityPersister persister, Object[] state) {
+        return (Integer) state[persister.getPropertyIndex("age")];
+    }
+
+    // 트랜잭션당 한 번만 커밋 전/후 처리를 등록 (OSIV 처럼 세션 하나가 여러 트랜잭션을 거칠 수 있다)
+    private Pending pending(EventSource session) {
+        return pendingBySession.computeIfAbsent(session, s -> {
+            Pending pending = new Pending(s);
+            s.getActionQueue().registerProcess((BeforeTransactionCompletionProcess) pending);
+            s.getActionQueue().registerProcess((AfterTransactionCompletionProcess) pending);
+            return pending;
+        });
+    }
+
+    private static class Delta {
+
+        long memberCount;
+        long ageSum;
+        Integer addedMin;
+        Integer addedMax;
+        boolean recomputeMinMax;
+        boolean recomputeAll;
+
+        void add(int age) {
+            memberCount++;
+            ageSum += age;
+            addedMin = addedMin == null ? age : Math.min(addedMin, age);
+            addedMax = addedMax == null ? age : Math.max(addedMax, age);
+        }
+
+        void remove(int age) {
+            memberCount--;
+            ageSum -= age;
+            recomputeMinMax = true; // 빠진 값이 최소/최대였을 수 있다
+        }
+
+    }
+
+    private class Pending implements BeforeTransactionCompletionProcess, AfterTransactionCompletionProcess {
+
+        private final EventSource session;
+        private final Map<Object, Delta> deltas = new TreeMap<>(); // team_id 순서로 갱신해 데드락을 피한다
+
+        Pending(EventSource session) {
+            this.session = session;
+        }
+
+        Delta delta(Object teamId) {
+            return deltas.computeIfAbsent(teamId, id -> new Delta());
+        }
+
+        @Override
+        public void doBeforeTransactionCompletion(SessionImplementor session) {
+            session.doWork(connection -> {
+                try (PreparedStatement increment = connection.prepareStatement(INCREMENT);
+                     PreparedStatement widen = connection.prepareStatement(WIDEN_MIN_MAX);
+                     PreparedStatement recomputeMinMax = connection.prepareStatement(RECOMPUTE_MIN_MAX);
+                     PreparedStatement recomputeAll = connection.prepareStatement(RECOMPUTE_ALL_COLUMNS + " where t.team_id = ?")) {
+
+                    for (Map.Entry<Object, Delta> entry : deltas.entrySet()) {
+                        Object teamId = entry.getKey();
+                        Delta delta = entry.getValue();
+                        if (delta.recomputeAll) {
+                            recomputeAll.setObject(1, teamId);
+                            recomputeAll.addBatch();
+                            continue;
+                        }
+                        if (delta.memberCount != 0 || delta.ageSum != 0) {
+                            increment.setLong(1, delta.memberCount);
+                            increment.setLong(2, delta.ageSum);
+                            increment.setObject(3, teamId);
+                            increment.addBatch();
+                        }
+                        if (delta.recomputeMinMax) {
+                            recomputeMinMax.setObject(1, teamId);
+                            recomputeMinMax.addBatch();
+                        } else if (delta.addedMin != null) {
+                            widen.setInt(1, delta.addedMin);
+                            widen.setInt(2, delta.addedMin);
+                            widen.setInt(3, delta.addedMax);
+                            widen.setInt(4, delta.addedMax);
+                            widen.setObject(5, teamId);
+                            widen.addBatch();
+                        }
+                    }
+
+                    increment.executeBatch();
+                    widen.executeBatch();
+                    recomputeMinMax.executeBatch();
+                    recomputeAll.executeBatch();
+                }
+            });
+        }
+
+        @Override
+        public void doAfterTransactionCompletion(boolean success, SharedSessionContractImplementor session) {
+            pendingBySession.remove(this.session);
+            if (success) { // 2차 캐시에 남은 이전 집계 값 제거
+                deltas.keySet().forEach(teamId -> session.getFactory().getCache().evictEntityData(Team.class, teamId));
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,84 @@
+package study.data_jpa.entity;
+
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.engine.spi.CacheImplementor;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+
+import java.util.Objects;
+
+/**
+ * Team.members 는 mappedBy(읽기 전용) 쪽이라 Member.team 만 바뀌면 하이버네이트가 컬렉션 캐시를 비우지 않는다.
+ * 회원이 생성/삭제되거나 팀이 바뀌면 이전 팀과 새 팀의 Team.members 캐시를 직접 비운다.
+ * 바로 비우고 트랜잭션이 끝난 뒤 한 번 더 비운다. 그 사이에 다른 트랜잭션이 커밋 전 목록을 다시 캐시할 수 있기 때문이다.
+ */
+public class TeamMembersCacheEvictor implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+    static final String TEAM_MEMBERS_ROLE = Team.class.getName() + ".members";
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (event.getEntity() instanceof Member) {
+            evict(event.getSession(), teamId(event.getPersister(), event.getState()));
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (!(event.getEntity() instanceof Member)) {
+            return;
+        }
+
+        Object newTeamId = teamId(event.getPersister(), event.getState());
+        if (event.getOldState() == null) { // 이전 팀을 알 수 없으면 리전 전체를 비운다
+            CacheImplementor cache = event.getPersister().getFactory().getCache();
+            cache.evictCollectionData(TEAM_MEMBERS_ROLE);
+            event.getSession().getActionQueue().registerProcess(
+                    (AfterTransactionCompletionProcess) (success, session) -> cache.evictCollectionData(TEAM_MEMBERS_ROLE));
+            return;
+        }
+
+        Object oldTeamId = teamId(event.getPersister(), event.getOldState());
+        if (!Objects.equals(oldTeamId, newTeamId)) {
+            evict(event.getSession(), oldTeamId);
+            evict(event.getSession(), newTeamId);
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getEntity() instanceof Member) {
+            evict(event.getSession(), teamId(event.getPersister(), event.getDeletedState()));
+        }
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+
+    static Object teamId(EntityPersister persister, Object[] state) {
+        if (state == null) {
+            return null;
+        }
+        Object team = state[persister.getPropertyIndex("team")];
+        return team == null ? null : persister.getFactory().getPersistenceUnitUtil().getIdentifier(team);
+    }
+
+    private static void evict(EventSource session, Object teamId) {
+        if (teamId == null) {
+            return;
+        }
+        CacheImplementor cache = session.getFactory().getCache();
+        cache.evictCollectionData(TEAM_MEMBERS_ROLE, teamId); // 이 트랜잭션 안의 조회가 이전 목록을 보지 않도록
+        session.getActionQueue().registerProcess(
+                (AfterTransactionCompletionProcess) (success, s) -> cache.evictCollectionData(TEAM_MEMBERS_ROLE, teamId));
+    }
+
+}
@@ -0,0 +1,34 @@
+package study.data_jpa.entity;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * username 검색 키 (Member 저장 시와 검색 시 같은 규칙을 써야 인덱스가 맞는다)
+ * key: 대소문자 무시 prefix 검색용, tokens: 글자/숫자가 아닌 문자로 나눈 단어 (전문 검색용)
+ */
+public final class UsernameSearch {
+
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private UsernameSearch() {
+    }
+
+    public static String key(String username) {
+        return username == null ? null : username.strip().toLowerCase(Locale.ROOT);
+    }
+
+    public static Set<String> tokens(String username) {
+        if (username == null) {
+            return Set.of();
+        }
+        return Arrays.stream(TOKEN_SEPARATOR.split(key(username)))
+                .filter(token -> !token.isEmpty())
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+
+}
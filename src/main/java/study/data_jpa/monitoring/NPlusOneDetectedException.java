@@ -0,0 +1,9 @@
+package study.data_jpa.monitoring;
+
+public class NPlusOneDetectedException extends RuntimeException {
+
+    public NPlusOneDetectedException(String message) {
+        super(message);
+    }
+
+}
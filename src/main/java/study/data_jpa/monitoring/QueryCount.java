@@ -0,0 +1,119 @@
+package study.data_jpa.monitoring;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// 하나의 범위(HTTP 요청, 트랜잭션, 테스트)에서 실행된 SQL 집계
+public class QueryCount {
+
+    static final int MAX_STATEMENTS = 500; // 실행한 SQL 원문은 앞에서부터 이만큼만 보관
+
+    private final String scope;
+    private final AtomicInteger total = new AtomicInteger();
+    private final AtomicInteger select = new AtomicInteger();
+    private final AtomicInteger insert = new AtomicInteger();
+    private final AtomicInteger update = new AtomicInteger();
+    private final AtomicInteger delete = new AtomicInteger();
+    private final Map<String, AtomicInteger> repeated = new ConcurrentHashMap<>();
+    private final List<String> statements = Collections.synchronizedList(new ArrayList<>());
+
+    public QueryCount(String scope) {
+        this.scope = scope;
+    }
+
+    /**
+     * @param signature 파라미터를 제외한 SQL (같은 signature 가 반복되면 N+1 의심)
+     * @return 이 범위에서 같은 signature 가 실행된 횟수
+     */
+    int record(String sql, String signature) {
+        total.incrementAndGet();
+        switch (StatementType.of(signature)) {
+            case SELECT -> select.incrementAndGet();
+            case INSERT -> insert.incrementAndGet();
+            case UPDATE -> update.incrementAndGet();
+            case DELETE -> delete.incrementAndGet();
+            default -> { }
+        }
+        if (statements.size() < MAX_STATEMENTS) {
+            statements.add(sql);
+        }
+        return repeated.computeIfAbsent(signature, s -> new AtomicInteger()).incrementAndGet();
+    }
+
+    public void reset() {
+        total.set(0);
+        select.set(0);
+        insert.set(0);
+        update.set(0);
+        delete.set(0);
+        repeated.clear();
+        statements.clear();
+    }
+
+    public String getScope() {
+        return scope;
+    }
+
+    public int getTotal() {
+        return total.get();
+    }
+
+    public int getSelect() {
+        return select.get();
+    }
+
+    public int getInsert() {
+        return insert.get();
+    }
+
+    public int getUpdate() {
+        return update.get();
+    }
+
+    public int getDelete() {
+        return delete.get();
+    }
+
+    public List<String> getStatements() {
+        synchronized (statements) {
+            return List.copyOf(statements);
+        }
+    }
+
+    // 같은 signature 로 가장 많이 반복된 횟수
+    public int getMaxRepeated() {
+        return repeated.values().stream().mapToInt(AtomicInteger::get).max().orElse(0);
+    }
+
+    @Override
+    public String toString() {
+        return scope + "[total=" + getTotal() + ", select=" + getSelect() + ", insert=" + getInsert()
+                + ", update=" + getUpdate() + ", delete=" + getDelete() + ", maxRepeated=" + getMaxRepeated() + "]";
+    }
+
+    enum StatementType {
+        SELECT, INSERT, UPDATE, DELETE, OTHER;
+
+        static StatementType of(String sql) {
+            String head = sql.stripLeading();
+            if (head.regionMatches(true, 0, "select", 0, 6) || head.regionMatches(true, 0, "with", 0, 4)) {
+                return SELECT;
+            }
+            if (head.regionMatches(true, 0, "insert", 0, 6)) {
+                return INSERT;
+            }
+            if (head.regionMatches(true, 0, "update", 0, 6)) {
+                return UPDATE;
+            }
+            if (head.regionMatches(true, 0, "delete", 0, 6)) {
+                return DELETE;
+            }
+            return OTHER;
+        }
+    }
+
+}
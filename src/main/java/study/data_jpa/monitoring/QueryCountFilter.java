@@ -0,0 +1,41 @@
+package study.data_jpa.monitoring;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+// HTTP 요청 하나 동안 실행된 SQL 수를 센다
+@Slf4j
+@Component
+public class QueryCountFilter extends OncePerRequestFilter {
+
+    private final int warnThreshold;
+
+    public QueryCountFilter(@Value("${query-count.warn-per-request:30}") int warnThreshold) {
+        this.warnThreshold = warnThreshold;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        QueryCount count = QueryCounter.start(request.getMethod() + " " + request.getRequestURI());
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            QueryCounter.stop(count);
+            if (count.getTotal() > warnThreshold) {
+                log.warn("쿼리가 많은 요청: {}", count);
+            } else if (log.isDebugEnabled()) {
+                log.debug("query count {}", count);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,77 @@
+package study.data_jpa.monitoring;
+
+import com.p6spy.engine.common.PreparedStatementInformation;
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.SimpleJdbcEventListener;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+import java.util.regex.Pattern;
+
+/**
+ * p6spy 데코레이터에 등록되는 리스너 (JdbcEventListener 빈은 p6spy-spring-boot-starter 가 자동 등록)
+ * 같은 select 가 파라미터만 바뀐 채 threshold 번을 넘게 반복되면 N+1 로 보고 경고하거나 예외를 던진다.
+ */
+@Slf4j
+@Component
+public class QueryCountListener extends SimpleJdbcEventListener {
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+
+    private final int nPlusOneThreshold;
+    private final boolean failOnNPlusOne;
+
+    public QueryCountListener(@Value("${query-count.n-plus-one-threshold:10}") int nPlusOneThreshold,
+                              @Value("${query-count.fail-on-n-plus-one:false}") boolean failOnNPlusOne) {
+        this.nPlusOneThreshold = nPlusOneThreshold;
+        this.failOnNPlusOne = failOnNPlusOne;
+    }
+
+    @Override
+    public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+        String sql = statementInformation.getSql();
+        if (sql == null || sql.isBlank()) {
+            return;
+        }
+        String signature = signature(statementInformation, sql);
+
+        for (QueryCount count : QueryCounter.openScopes()) {
+            check(count, count.record(sql, signature), signature);
+        }
+        QueryCount transaction = QueryCounter.currentTransaction(this::transactionCompleted);
+        if (transaction != null) {
+            check(transaction, transaction.record(sql, signature), signature);
+        }
+    }
+
+    private void check(QueryCount count, int repeated, String signature) {
+        if (repeated != nPlusOneThreshold + 1 || QueryCount.StatementType.of(signature) != QueryCount.StatementType.SELECT) {
+            return; // 같은 범위에서 한 번만 보고
+        }
+
+        String message = "N+1 의심: " + count.getScope() + " 에서 같은 쿼리가 " + repeated + "번 이상 실행됨 - " + signature;
+        if (failOnNPlusOne) {
+            throw new NPlusOneDetectedException(message);
+        }
+        log.warn(message);
+    }
+
+    private void transactionCompleted(QueryCount count) {
+        if (log.isDebugEnabled()) {
+            log.debug("query count {}", count);
+        }
+    }
+
+    // PreparedStatement 는 이미 파라미터가 ? 로 빠져 있고, 일반 Statement 만 리터럴을 ? 로 바꾼다
+    private static String signature(StatementInformation statementInformation, String sql) {
+        if (statementInformation instanceof PreparedStatementInformation) {
+            return sql;
+        }
+        String withoutStrings = STRING_LITERAL.matcher(sql).replaceAll("?");
+        return NUMBER_LITERAL.matcher(withoutStrings).replaceAll("?");
+    }
+
+}
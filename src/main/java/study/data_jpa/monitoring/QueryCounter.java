@@ -0,0 +1,71 @@
+package study.data_jpa.monitoring;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * 현재 스레드의 SQL 집계 범위를 관리한다.
+ * HTTP 요청/테스트 범위는 start()/stop() 으로 직접 열고 닫고, 트랜잭션 범위는 첫 SQL 실행 시 자동으로 열린다.
+ */
+public final class QueryCounter {
+
+    private static final ThreadLocal<Deque<QueryCount>> scopes = ThreadLocal.withInitial(ArrayDeque::new);
+
+    private QueryCounter() {
+    }
+
+    public static QueryCount start(String scope) {
+        QueryCount count = new QueryCount(scope);
+        scopes.get().push(count);
+        return count;
+    }
+
+    public static void stop(QueryCount count) {
+        Deque<QueryCount> deque = scopes.get();
+        deque.remove(count);
+        if (deque.isEmpty()) {
+            scopes.remove();
+        }
+    }
+
+    // 바깥 범위부터 현재 열려 있는 범위들
+    static List<QueryCount> openScopes() {
+        Deque<QueryCount> deque = scopes.get();
+        if (deque.isEmpty()) {
+            scopes.remove();
+            return List.of();
+        }
+        return List.copyOf(deque);
+    }
+
+    static QueryCount currentTransaction(TransactionCompletionCallback callback) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+
+        QueryCount count = (QueryCount) TransactionSynchronizationManager.getResource(QueryCounter.class);
+        if (count == null) {
+            QueryCount newCount = new QueryCount("transaction");
+            TransactionSynchronizationManager.bindResource(QueryCounter.class, newCount);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(QueryCounter.class);
+                    callback.completed(newCount);
+                }
+            });
+            count = newCount;
+        }
+        return count;
+    }
+
+    @FunctionalInterface
+    interface TransactionCompletionCallback {
+        void completed(QueryCount count);
+    }
+
+}
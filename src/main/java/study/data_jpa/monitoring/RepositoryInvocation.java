@@ -0,0 +1,39 @@
+package study.data_jpa.monitoring;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * 현재 스레드에서 실행 중인 리포지토리 메서드 ("MemberRepository.findByAge" 형태)
+ * 리포지토리 프록시(RepositoryMetricsInterceptor)가 호출 전후로 push/pop 한다.
+ */
+public final class RepositoryInvocation {
+
+    private static final ThreadLocal<Deque<String>> methods = ThreadLocal.withInitial(ArrayDeque::new);
+
+    private RepositoryInvocation() {
+    }
+
+    public static void push(String method) {
+        methods.get().push(method);
+    }
+
+    public static void pop() {
+        Deque<String> deque = methods.get();
+        deque.poll();
+        if (deque.isEmpty()) {
+            methods.remove();
+        }
+    }
+
+    // 가장 안쪽 호출 (리포지토리 안에서 다른 리포지토리를 부르면 실제로 SQL 을 실행한 쪽)
+    public static String current() {
+        Deque<String> deque = methods.get();
+        if (deque.isEmpty()) {
+            methods.remove();
+            return null;
+        }
+        return deque.peek();
+    }
+
+}
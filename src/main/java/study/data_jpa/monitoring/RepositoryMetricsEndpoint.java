@@ -0,0 +1,96 @@
+package study.data_jpa.monitoring;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * /actuator/repositories
+ * 리포지토리 메서드별 호출 수/지연/에러/결과 건수와 하이버네이트 통계, 커넥션 획득 시간을 한 번에 보여준다.
+ * (같은 값이 /actuator/metrics 와 프로메테우스 등 레지스트리에도 그대로 있다)
+ */
+@Component
+@Endpoint(id = "repositories")
+public class RepositoryMetricsEndpoint {
+
+    private final MeterRegistry meterRegistry;
+    private final EntityManagerFactory emf;
+
+    public RepositoryMetricsEndpoint(MeterRegistry meterRegistry, EntityManagerFactory emf) {
+        this.meterRegistry = meterRegistry;
+        this.emf = emf;
+    }
+
+    @ReadOperation
+    public Map<String, Object> repositories() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("methods", methods());
+        result.put("hibernate", hibernate());
+        result.put("connectionPool", connectionPool());
+        return result;
+    }
+
+    private Map<String, Map<String, Object>> methods() {
+        Map<String, Map<String, Object>> methods = new TreeMap<>();
+        for (Timer timer : meterRegistry.find("repository.method").timers()) {
+            String name = timer.getId().getTag("repository") + "." + timer.getId().getTag("method");
+            Map<String, Object> stats = methods.computeIfAbsent(name, key -> new LinkedHashMap<>());
+            if ("ERROR".equals(timer.getId().getTag("outcome"))) {
+                stats.merge("errors", timer.count(), (a, b) -> (Long) a + (Long) b);
+                continue;
+            }
+            stats.put("count", timer.count());
+            stats.put("meanMs", timer.mean(TimeUnit.MILLISECONDS));
+            stats.put("maxMs", timer.max(TimeUnit.MILLISECONDS));
+        }
+        for (DistributionSummary summary : meterRegistry.find("repository.method.result.size").summaries()) {
+            String name = summary.getId().getTag("repository") + "." + summary.getId().getTag("method");
+            Map<String, Object> stats = methods.computeIfAbsent(name, key -> new LinkedHashMap<>());
+            stats.put("resultSizeMean", summary.mean());
+            stats.put("resultSizeMax", summary.max());
+        }
+        return methods;
+    }
+
+    private Map<String, Object> hibernate() {
+        Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        Map<String, Object> hibernate = new LinkedHashMap<>();
+        hibernate.put("statisticsEnabled", statistics.isStatisticsEnabled());
+        hibernate.put("entityLoads", statistics.getEntityLoadCount());
+        hibernate.put("entityFetches", statistics.getEntityFetchCount());
+        hibernate.put("collectionLoads", statistics.getCollectionLoadCount());
+        hibernate.put("flushes", statistics.getFlushCount());
+        hibernate.put("preparedStatements", statistics.getPrepareStatementCount());
+        hibernate.put("queryPlanCacheHits", statistics.getQueryPlanCacheHitCount());
+        hibernate.put("queryPlanCacheMisses", statistics.getQueryPlanCacheMissCount());
+        hibernate.put("secondLevelCacheHits", statistics.getSecondLevelCacheHitCount());
+        hibernate.put("secondLevelCacheMisses", statistics.getSecondLevelCacheMissCount());
+        hibernate.put("slowestQuery", statistics.getQueryExecutionMaxTimeQueryString());
+        hibernate.put("slowestQueryMs", statistics.getQueryExecutionMaxTime());
+        return hibernate;
+    }
+
+    private Map<String, Object> connectionPool() {
+        Map<String, Object> pools = new TreeMap<>();
+        for (Timer acquire : meterRegistry.find("hikaricp.connections.acquire").timers()) {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("acquireCount", acquire.count());
+            stats.put("acquireMeanMs", acquire.mean(TimeUnit.MILLISECONDS));
+            stats.put("acquireMaxMs", acquire.max(TimeUnit.MILLISECONDS));
+            pools.put(acquire.getId().getTag("pool"), stats);
+        }
+        return pools;
+    }
+
+}
@@ -0,0 +1,44 @@
+package study.data_jpa.monitoring;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.time.Instant;
+import java.util.List;
+
+// 임계값을 넘긴 SQL 한 건 (plan 은 EXPLAIN 이 끝나면 비동기로 채워진다)
+@Getter
+public class SlowQuery {
+
+    private final Instant executedAt;
+    private final long elapsedMillis;
+    private final String sql;
+    private final String sqlWithValues;
+    @Getter(AccessLevel.NONE)
+    private final List<Object> parameters; // 바인딩 순서대로, EXPLAIN 에 그대로 바인딩한다
+    private final String endpoint;
+    private final String repositoryMethod;
+    private final String error;
+    private volatile String plan;
+
+    public SlowQuery(Instant executedAt, long elapsedMillis, String sql, String sqlWithValues, List<Object> parameters,
+                     String endpoint, String repositoryMethod, String error) {
+        this.executedAt = executedAt;
+        this.elapsedMillis = elapsedMillis;
+        this.sql = sql;
+        this.sqlWithValues = sqlWithValues;
+        this.parameters = parameters;
+        this.endpoint = endpoint;
+        this.repositoryMethod = repositoryMethod;
+        this.error = error;
+    }
+
+    List<Object> parameters() {
+        return parameters;
+    }
+
+    void setPlan(String plan) {
+        this.plan = plan;
+    }
+
+}
@@ -0,0 +1,39 @@
+package study.data_jpa.monitoring;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * /actuator/slowqueries?repository=MemberRepository&endpoint=/members&minMillis=500
+ * 조건은 모두 선택이며 부분 일치로 거른다. DELETE 로 버퍼를 비운다.
+ */
+@Component
+@Endpoint(id = "slowqueries")
+public class SlowQueryEndpoint {
+
+    private final SlowQueryLog slowQueryLog;
+
+    public SlowQueryEndpoint(SlowQueryLog slowQueryLog) {
+        this.slowQueryLog = slowQueryLog;
+    }
+
+    @ReadOperation
+    public List<SlowQuery> slowQueries(@Nullable String repository, @Nullable String endpoint, @Nullable Long minMillis) {
+        return slowQueryLog.recent().stream()
+                .filter(q -> repository == null || (q.getRepositoryMethod() != null && q.getRepositoryMethod().contains(repository)))
+                .filter(q -> endpoint == null || (q.getEndpoint() != null && q.getEndpoint().contains(endpoint)))
+                .filter(q -> minMillis == null || q.getElapsedMillis() >= minMillis)
+                .toList();
+    }
+
+    @DeleteOperation
+    public void clear() {
+        slowQueryLog.clear();
+    }
+
+}
@@ -0,0 +1,74 @@
+package study.data_jpa.monitoring;
+
+import com.p6spy.engine.common.PreparedStatementInformation;
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.common.Value;
+import com.p6spy.engine.event.SimpleJdbcEventListener;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 실행 시간이 slow-query.threshold-ms 를 넘은 SQL 만 SlowQueryLog 에 남긴다.
+ * 어느 요청(QueryCountFilter 범위)과 어느 리포지토리 메서드에서 실행됐는지 함께 기록한다.
+ */
+@Component
+public class SlowQueryListener extends SimpleJdbcEventListener {
+
+    private final SlowQueryLog slowQueryLog;
+    private final long thresholdNanos;
+
+    public SlowQueryListener(SlowQueryLog slowQueryLog,
+                             @Value("${slow-query.threshold-ms:200}") long thresholdMillis) {
+        this.slowQueryLog = slowQueryLog;
+        this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMillis);
+    }
+
+    @Override
+    public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+        if (timeElapsedNanos < thresholdNanos) {
+            return;
+        }
+        String sql = statementInformation.getSql();
+        if (sql == null || sql.isBlank() || sql.stripLeading().toLowerCase(Locale.ROOT).startsWith(SlowQueryLog.EXPLAIN)) {
+            return;
+        }
+
+        slowQueryLog.add(new SlowQuery(
+                Instant.now(),
+                TimeUnit.NANOSECONDS.toMillis(timeElapsedNanos),
+                sql,
+                statementInformation.getSqlWithValues(),
+                parameters(statementInformation),
+                endpoint(),
+                RepositoryInvocation.current(),
+                e == null ? null : e.getMessage()));
+    }
+
+    // PreparedStatement 에 바인딩된 값 (인덱스 순), 일반 Statement 는 없음
+    private static List<Object> parameters(StatementInformation statementInformation) {
+        if (!(statementInformation instanceof PreparedStatementInformation prepared)) {
+            return List.of();
+        }
+        List<Object> parameters = new ArrayList<>();
+        for (Map.Entry<Integer, Value> entry : new TreeMap<>(prepared.getParameterValues()).entrySet()) {
+            parameters.add(entry.getValue() == null ? null : entry.getValue().getValue());
+        }
+        return parameters;
+    }
+
+    // 가장 바깥 범위 (HTTP 요청이면 "GET /members")
+    private static String endpoint() {
+        List<QueryCount> scopes = QueryCounter.openScopes();
+        return scopes.isEmpty() ? null : scopes.get(scopes.size() - 1).getScope();
+    }
+
+}
@@ -0,0 +1,127 @@
+package study.data_jpa.monitoring;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * 느린 쿼리를 최근 capacity 건만 보관하는 링 버퍼
+ * select 는 별도 스레드에서 EXPLAIN 을 실행해 실행 계획을 붙인다 (같은 SQL, 같은 바인딩 값은 planTtl 동안 한 번만).
+ * 실행 계획은 값에 따라 달라질 수 있으므로 (분포가 치우친 컬럼 등) SQL 만으로 캐시하지 않는다.
+ */
+@Slf4j
+@Component
+public class SlowQueryLog {
+
+    static final String EXPLAIN = "explain ";
+
+    private final Deque<SlowQuery> buffer = new ArrayDeque<>();
+    private final int capacity;
+    private final boolean explain;
+    private final JdbcTemplate jdbcTemplate;
+    private final Cache<PlanKey, String> plans;
+    private final ThreadPoolExecutor explainExecutor;
+
+    public SlowQueryLog(DataSource dataSource,
+                        @Value("${slow-query.capacity:200}") int capacity,
+                        @Value("${slow-query.explain:true}") boolean explain,
+                        @Value("${slow-query.plan-ttl:10m}") Duration planTtl) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.capacity = capacity;
+        this.explain = explain;
+        this.plans = Caffeine.newBuilder()
+                .expireAfterWrite(planTtl)
+                .maximumSize(1000)
+                .build();
+        // 요청 스레드를 붙잡지 않도록 스레드 하나, 대기열이 차면 버린다
+        this.explainExecutor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(100),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "slow-query-explain");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.DiscardPolicy());
+    }
+
+    public void add(SlowQuery slowQuery) {
+        synchronized (buffer) {
+            if (buffer.size() == capacity) {
+                buffer.pollFirst();
+            }
+            buffer.addLast(slowQuery);
+        }
+        log.warn("느린 쿼리 {}ms [{}] [{}] {}", slowQuery.getElapsedMillis(), slowQuery.getEndpoint(),
+                slowQuery.getRepositoryMethod(), slowQuery.getSqlWithValues());
+
+        if (explain && isSelect(slowQuery.getSql())) {
+            try {
+                PlanKey key = new PlanKey(slowQuery.getSql(), slowQuery.parameters());
+                explainExecutor.execute(() -> slowQuery.setPlan(plans.get(key, k -> explain(slowQuery))));
+            } catch (RejectedExecutionException e) {
+                log.debug("EXPLAIN 생략", e);
+            }
+        }
+    }
+
+    // 최신 순
+    public List<SlowQuery> recent() {
+        synchronized (buffer) {
+            List<SlowQuery> result = new ArrayList<>(buffer);
+            Collections.reverse(result);
+            return result;
+        }
+    }
+
+    public void clear() {
+        synchronized (buffer) {
+            buffer.clear();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        explainExecutor.shutdownNow();
+    }
+
+    // 원래 SQL 에 원래 값을 PreparedStatement 로 바인딩해 실행 계획만 조회 (select 는 EXPLAIN 으로 실제 실행되지 않는다)
+    // getSqlWithValues() 를 이어 붙이면 값의 따옴표, 타입 표현에 따라 SQL 이 깨지거나 다른 SQL 이 된다
+    private String explain(SlowQuery slowQuery) {
+        try {
+            List<Map<String, Object>> rows = jdbcTemplate.queryForList(EXPLAIN + slowQuery.getSql(),
+                    slowQuery.parameters().toArray());
+            return rows.stream()
+                    .map(Map::toString)
+                    .collect(Collectors.joining("\n"));
+        } catch (RuntimeException e) {
+            return "EXPLAIN 실패: " + e.getMessage();
+        }
+    }
+
+    private record PlanKey(String sql, List<Object> parameters) {
+    }
+
+    private static boolean isSelect(String sql) {
+        String trimmed = sql.stripLeading().toLowerCase(Locale.ROOT);
+        return trimmed.startsWith("select") || trimmed.startsWith("with");
+    }
+
+}
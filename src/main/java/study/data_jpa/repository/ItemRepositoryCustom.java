@@ -0,0 +1,11 @@
+package study.data_jpa.repository;
+
+import study.data_jpa.dto.ItemBulkInsertResult;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface ItemRepositoryCustom {
+    ItemBulkInsertResult bulkInsert(Collection<String> ids);
+    List<String> findExistingIds(Collection<String> ids);
+}
@@ -0,0 +1,103 @@
+package study.data_jpa.repository;
+
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+import study.data_jpa.dto.ItemBulkInsertResult;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+@RequiredArgsConstructor
+public class ItemRepositoryImpl implements ItemRepositoryCustom {
+
+    static final int BATCH_SIZE = 1000;
+
+    private final EntityManager em;
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * persist/merge 와 감사 리스너를 거치지 않고 multi-row insert 로 저장한다.
+     * 중복 키는 in 쿼리로 한 번에 걸러내고, createdDate 는 배치마다 한 번만 찍는다.
+     * 확인과 insert 사이에 다른 요청이 같은 id 를 넣어도 실패하지 않도록 insert ignore 를 쓰고,
+     * 반영된 행 수가 모자라면 이번 createdDate 로 들어간 행만 저장한 것으로 본다.
+     * 이 경로로 저장한 Item 은 영속성 컨텍스트에 올라오지 않는다.
+     */
+    @Override
+    @Transactional
+    public ItemBulkInsertResult bulkInsert(Collection<String> ids) {
+        List<String> duplicateIds = new ArrayList<>();
+        Set<String> unique = new LinkedHashSet<>();
+        for (String id : ids) {
+            if (!unique.add(id)) {
+                duplicateIds.add(id);
+            }
+        }
+
+        Set<String> existing = new HashSet<>(findExistingIds(unique));
+        List<String> insertIds = new ArrayList<>(unique.size());
+        for (String id : unique) {
+            if (existing.contains(id)) {
+                duplicateIds.add(id);
+            } else {
+                insertIds.add(id);
+            }
+        }
+
+        List<String> insertedIds = new ArrayList<>(insertIds.size());
+        for (int from = 0; from < insertIds.size(); from += BATCH_SIZE) {
+            List<String> batch = insertIds.subList(from, Math.min(from + BATCH_SIZE, insertIds.size()));
+            Timestamp createdDate = Timestamp.valueOf(LocalDateTime.now().truncatedTo(ChronoUnit.MICROS)); // 컬럼 정밀도와 맞춘다
+            List<Object> args = new ArrayList<>(batch.size() * 2);
+            for (String id : batch) {
+                args.add(id);
+                args.add(createdDate);
+            }
+            int inserted = jdbcTemplate.update("insert ignore into item (id, created_date) values "
+                    + String.join(", ", Collections.nCopies(batch.size(), "(?, ?)")), args.toArray());
+            if (inserted == batch.size()) {
+                insertedIds.addAll(batch);
+                continue;
+            }
+            List<Object> params = new ArrayList<>(batch.size() + 1);
+            params.add(createdDate);
+            params.addAll(batch);
+            Set<String> ours = new HashSet<>(jdbcTemplate.queryForList(
+                    "select id from item where created_date = ? and id in ("
+                            + String.join(", ", Collections.nCopies(batch.size(), "?")) + ")",
+                    String.class, params.toArray()));
+            for (String id : batch) {
+                if (ours.contains(id)) {
+                    insertedIds.add(id);
+                } else {
+                    duplicateIds.add(id); // 다른 요청이 먼저 넣었다
+                }
+            }
+        }
+
+        return new ItemBulkInsertResult(insertedIds, duplicateIds);
+    }
+
+    // 파라미터 수 제한을 넘지 않도록 BATCH_SIZE 씩 나눠서 조회
+    @Override
+    public List<String> findExistingIds(Collection<String> ids) {
+        List<String> all = new ArrayList<>(ids);
+        List<String> existing = new ArrayList<>();
+        for (int from = 0; from < all.size(); from += BATCH_SIZE) {
+            existing.addAll(em.createQuery("select i.id from Item i where i.id in :ids", String.class)
+                    .setParameter("ids", all.subList(from, Math.min(from + BATCH_SIZE, all.size())))
+                    .getResultList());
+        }
+        return existing;
+    }
+
+}
@@ -2,9 +2,13 @@ package study.data_jpa.repository;
 
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Repository;
 import study.data_jpa.entity.Member;
+import study.data_jpa.repository.support.BulkUpdateEvent;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -14,6 +18,9 @@ public class MemberJpaRepository {
     @PersistenceContext
     private EntityManager em;
 
+    @Autowired
+    private ApplicationEventPublisher publisher;
+
     public Member save(Member member) {
         em.persist(member);
         return member;
@@ -69,10 +76,17 @@ public class MemberJpaRepository {
                 .getSingleResult();
     }
 
+    // 받는 쪽(TeamAggregateService 등)이 바뀐 회원만 처리하도록 id 를 먼저 조회해 이벤트에 담는다
     public int bulkAgePlus(int age) {
-        return em.createQuery("update Member m set m.age = m.age + 1 where m.age >= :age")
+        List<Long> ids = em.createQuery("select m.id from Member m where m.age >= :age", Long.class)
+                .setParameter("age", age)
+                .getResultList();
+        int resultCount = em.createQuery("update versioned Member m set m.age = m.age + 1, m.lastModifiedDate = :now where m.age >= :age")
                 .setParameter("age", age)
+                .setParameter("now", LocalDateTime.now())
                 .executeUpdate();
+        publisher.publishEvent(new BulkUpdateEvent(Member.class, "bulkAgePlus", resultCount, ids));
+        return resultCount;
     }
 
 }
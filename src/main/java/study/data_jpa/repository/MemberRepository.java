@@ -2,16 +2,22 @@ package study.data_jpa.repository;
 
 import jakarta.persistence.LockModeType;
 import jakarta.persistence.QueryHint;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.*;
 import org.springframework.data.jpa.repository.*;
 import org.springframework.data.repository.query.Param;
 import study.data_jpa.dto.MemberDto;
+import study.data_jpa.dto.MemberVersionDto;
+import study.data_jpa.dto.VersionedMemberDto;
 import study.data_jpa.entity.Member;
+import study.data_jpa.entity.Team;
+import study.data_jpa.repository.support.CachedQuery;
+import study.data_jpa.repository.support.InListChunked;
 
+import java.time.LocalDateTime;
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface MemberRepository extends JpaRepository<Member, Long>, MemberRepositoryCustom, JpaSpecificationExecutor<Member> {
     List<Member> findByUsernameAndAgeGreaterThan(String username, int age);
@@ -20,22 +26,62 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
     List<Member> findByUsername(@Param("username") String username);
     @Query("select m from Member m where m.username = :username and m.age = :age")
     List<Member> findUser(@Param("username") String username, @Param("age") int age);
+    @CachedQuery(ttlSeconds = 30, maxSize = 1, evictOn = Member.class)
     @Query("select m.username from Member m")
     List<String> findUsernameList();
+    @CachedQuery(ttlSeconds = 30, maxSize = 1, evictOn = {Member.class, Team.class})
     @Query("select new study.data_jpa.dto.MemberDto(m.id, m.username, t.name) from Member m join m.team t")
     List<MemberDto> findMemberDto();
+    // DTO로 바로 조회하므로 영속성 컨텍스트에 엔티티가 쌓이지 않고, fetchSize 만큼씩 커서로 읽어온다 (트랜잭션 안에서 사용)
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.fetchSize", value = "1000"),
+            @QueryHint(name = "org.hibernate.readOnly", value = "true")
+    })
+    @Query("select new study.data_jpa.dto.MemberDto(m.id, m.username, t.name) from Member m left join m.team t order by m.id")
+    Stream<MemberDto> streamMemberDto();
+    // 엔티티를 거치지 않고 필요한 컬럼만 DTO로 조회 (팀 이름까지 한 번에, 지연 로딩 없음)
+    @Query(value = "select new study.data_jpa.dto.MemberDto(m.id, m.username, t.name) from Member m left join m.team t",
+            countQuery = "select count(m) from Member m")
+    Page<MemberDto> findMemberDtoPage(Pageable pageable);
+    @Query("select new study.data_jpa.dto.MemberDto(m.id, m.username, t.name) from Member m left join m.team t")
+    Slice<MemberDto> findMemberDtoSlice(Pageable pageable);
+    @InListChunked(chunkSize = 1000) // 큰 컬렉션은 1000개씩, 각 청크는 2의 거듭제곱 개로 패딩
     @Query("select m from Member m where m.username in :names")
     List<Member> findByNames(@Param("names") Collection<String> names);
+    // 대소문자 무시 prefix 검색, username_key 인덱스를 정렬 순서대로 읽다가 limit 에서 멈춘다 (MemberSearchService 에서 호출)
+    @Query("select new study.data_jpa.dto.MemberDto(m.id, m.username, t.name) from Member m left join m.team t"
+            + " where m.usernameKey like :pattern escape '!'")
+    Slice<MemberDto> searchByUsernameKey(@Param("pattern") String pattern, Pageable pageable);
     List<Member> findListByUsername(String username);
     Member findMemberByUsername(String username);
     Optional<Member> findOptionalByUsername(String username);
     Page<Member> findByAge(int age, Pageable pageable);
+    Window<Member> findByAge(int age, ScrollPosition position, Limit limit, Sort sort); // keyset(seek) 페이징
+    Window<Member> findAllBy(ScrollPosition position, Limit limit, Sort sort);
+    Window<Member> findByUsernameIsNotNull(ScrollPosition position, Limit limit, Sort sort); // null 은 keyset 비교가 안 되므로 나눠서 조회
+    Window<Member> findByUsernameIsNull(ScrollPosition position, Limit limit, Sort sort);
+    Slice<Member> findSliceByAge(int age, Pageable pageable); // limit + 1 조회, count 쿼리 없음
+    Slice<Member> findSliceBy(Pageable pageable);
+    long countByAge(int age);
     @Query(value = "select m from Member m left join m.team t",
             countQuery = "select count(m) from Member m")
     Page<Member> findByAge_join(int age, Pageable pageable);
+    @Query("select m from Member m left join m.team t")
+    Slice<Member> findSliceByAge_join(int age, Pageable pageable);
     @Modifying(clearAutomatically = true)
-    @Query("update Member m set m.age = m.age + 1 where m.age >= :age")
+    // versioned: @Version 도 함께 증가, 감사 필드는 직접 갱신 (DB 시계 대신 AuditingEntityListener 와 같은 JVM 시계)
+    @Query("update versioned Member m set m.age = m.age + 1, m.lastModifiedDate = :#{T(java.time.LocalDateTime).now()} where m.age >= :age")
     int bulkAgePlus(@Param("age") int age);
+    // 조건부 GET 용 버전 조회 (엔티티를 읽지 않고 pk 로 두 컬럼만)
+    @Query("select new study.data_jpa.dto.MemberVersionDto(m.id, m.version, m.lastModifiedDate) from Member m where m.id = :id")
+    Optional<MemberVersionDto> findVersionById(@Param("id") Long id);
+    // 목록 ETag 의 공유 버전, idx_member_last_modified_date 끝에서 한 건만 읽는다 (회원이 없으면 null)
+    @Query("select max(m.lastModifiedDate) from Member m")
+    LocalDateTime findLastModifiedDate();
+    // MemberLookupService 용 DTO 조회 (팀 이름 포함)
+    @InListChunked(chunkSize = 1000)
+    @Query("select new study.data_jpa.dto.VersionedMemberDto(m.id, m.username, t.name, m.version) from Member m left join m.team t where m.id in :ids")
+    List<VersionedMemberDto> findVersionedDtosByIds(@Param("ids") Collection<Long> ids);
     @Query("select m from Member m left join fetch m.team")
     List<Member> findMemberFetchJoin();
     @Override
@@ -45,12 +91,23 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
     Member findReadOnlyByUsername(@Param("username") String username);
     @Lock(LockModeType.PESSIMISTIC_WRITE)
     List<Member> findLockByUsername(String username);
+    // 다른 트랜잭션이 잠근 행은 기다리지 않고 건너뛰고(for update skip locked) 최대 limit 건을 가져간다
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2")) // -2 = SKIP_LOCKED
+    @Query("select m from Member m where m.age < :age order by m.id")
+    List<Member> claimByAgeLessThan(@Param("age") int age, Limit limit);
     <T> List<T> findProjectionsByUsername(@Param("username") String username, Class<T> type);
+    <T> Slice<T> findProjectionsBy(Pageable pageable, Class<T> type); // 조건 없이 동적 프로젝션 (ProjectionBenchmark)
     @Query(value = "select * from member where username = ?", nativeQuery = true)
     Member findByNativeQuery(String username);
     @Query(value = "select m.member_id as id, m.username, t.name as teamName "
             + "from member m left join team t on m.team_id = t.team_id",
             countQuery = "select count(*) from member",
             nativeQuery = true)
+    @CachedQuery(ttlSeconds = 30, maxSize = 100, evictOn = {Member.class, Team.class})
     Page<MemberProjection> findByNativeProjection(Pageable pageable);
+    @Query(value = "select m.member_id as id, m.username, t.name as teamName "
+            + "from member m left join team t on m.team_id = t.team_id",
+            nativeQuery = true)
+    Slice<MemberProjection> findSliceByNativeProjection(Pageable pageable);
 }
@@ -1,9 +1,16 @@
 package study.data_jpa.repository;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import study.data_jpa.dto.MemberDto;
 import study.data_jpa.entity.Member;
+import study.data_jpa.repository.support.ChunkedUpdateProgress;
 
 import java.util.List;
 
 public interface MemberRepositoryCustom {
     List<Member> findMemberCustom();
+    ChunkedUpdateProgress bulkAgePlusInChunks(int age, int chunkSize, long resumeAfterId);
+    List<Member> search(MemberSpec spec);
+    Slice<MemberDto> searchByUsernameTokens(List<String> tokens, Pageable pageable); // 첫 번째 토큰이 조회를 이끈다
 }
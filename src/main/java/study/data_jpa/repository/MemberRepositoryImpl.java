@@ -1,15 +1,33 @@
 package study.data_jpa.repository;
 
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.transaction.annotation.Transactional;
+import study.data_jpa.dto.MemberDto;
 import study.data_jpa.entity.Member;
+import study.data_jpa.repository.support.ChunkedUpdate;
+import study.data_jpa.repository.support.ChunkedUpdateExecutor;
+import study.data_jpa.repository.support.ChunkedUpdateProgress;
+import study.data_jpa.repository.support.CompiledQueryCache;
 
+import java.util.ArrayList;
 import java.util.List;
 
 @RequiredArgsConstructor
 public class MemberRepositoryImpl implements MemberRepositoryCustom {
 
     private final EntityManager em;
+    private final ChunkedUpdateExecutor chunkedUpdateExecutor;
+    private final CompiledQueryCache compiledQueryCache;
 
     @Override
     public List<Member> findMemberCustom() {
@@ -17,4 +35,76 @@ public class MemberRepositoryImpl implements MemberRepositoryCustom {
                 .getResultList();
     }
 
+    // bulkAgePlus 를 member_id 구간별로 나눠 청크마다 커밋 (트랜잭션 밖에서 호출)
+    @Override
+    public ChunkedUpdateProgress bulkAgePlusInChunks(int age, int chunkSize, long resumeAfterId) {
+        return chunkedUpdateExecutor.execute(
+                ChunkedUpdate.of(Member.class, "m", "m.age = m.age + 1", "m.age >= :age")
+                        .param("age", age)
+                        .chunkSize(chunkSize)
+                        .resumeAfterId(resumeAfterId));
+    }
+
+    // findAll(Specification) 과 같은 결과지만 조건 모양별로 캐시된 JPQL 에 값만 바인딩한다
+    @Override
+    public List<Member> search(MemberSpec spec) {
+        if (!spec.isCompilable()) {
+            compiledQueryCache.recordFallback();
+            return findAllByCriteria(spec);
+        }
+
+        String jpql = compiledQueryCache.get("Member:" + spec.shape(), spec::toJpql);
+        TypedQuery<Member> query = em.createQuery(jpql, Member.class);
+        spec.bind(query);
+        return query.getResultList();
+    }
+
+    /**
+     * 모든 토큰을 가진 회원을 id 순으로
+     * 첫 번째 토큰의 (token, member_id) 인덱스를 member_id 순서대로 읽으면서 나머지 토큰은 같은 인덱스로 exists 확인만 하므로,
+     * 페이지 크기만큼 찾으면 멈춘다 (group by 로 교집합을 구하면 토큰마다 일치하는 행을 모두 읽어야 한다).
+     * FIRSTMATCH: exists 를 세미조인으로 바꾸더라도 첫 번째 토큰 순서대로 한 건씩 확인하게 한다 (MySQL 힌트, 다른 DB 는 주석)
+     */
+    @Override
+    @Transactional(readOnly = true) // 쿼리 메서드와 같이 읽기 전용 (replica 라우팅)
+    public Slice<MemberDto> searchByUsernameTokens(List<String> tokens, Pageable pageable) {
+        StringBuilder sql = new StringBuilder("select m.member_id, m.username, t.name"
+                + " from member_username_token d"
+                + " join member m on m.member_id = d.member_id"
+                + " left join team t on t.team_id = m.team_id"
+                + " where d.token = ?1");
+        for (int i = 1; i < tokens.size(); i++) {
+            sql.append(" and exists (select /*+ SEMIJOIN(FIRSTMATCH) */ 1 from member_username_token e").append(i)
+                    .append(" where e").append(i).append(".token = ?").append(i + 1)
+                    .append(" and e").append(i).append(".member_id = d.member_id)");
+        }
+        sql.append(" order by d.member_id");
+
+        Query query = em.createNativeQuery(sql.toString());
+        for (int i = 0; i < tokens.size(); i++) {
+            query.setParameter(i + 1, tokens.get(i));
+        }
+        List<?> rows = query.setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize() + 1) // 다음 페이지 여부 확인용 한 건
+                .getResultList();
+
+        List<MemberDto> content = new ArrayList<>(Math.min(rows.size(), pageable.getPageSize()));
+        for (Object row : rows.subList(0, Math.min(rows.size(), pageable.getPageSize()))) {
+            Object[] columns = (Object[]) row;
+            content.add(new MemberDto(((Number) columns[0]).longValue(), (String) columns[1], (String) columns[2]));
+        }
+        return new SliceImpl<>(content, pageable, rows.size() > pageable.getPageSize());
+    }
+
+    private List<Member> findAllByCriteria(MemberSpec spec) {
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaQuery<Member> cq = cb.createQuery(Member.class);
+        Root<Member> root = cq.from(Member.class);
+        Predicate predicate = spec.toPredicate(root, cq, cb);
+        if (predicate != null) {
+            cq.where(predicate);
+        }
+        return em.createQuery(cq).getResultList();
+    }
+
 }
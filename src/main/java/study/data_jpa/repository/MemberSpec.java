@@ -1,28 +1,115 @@
 package study.data_jpa.repository;
 
 import io.micrometer.common.util.StringUtils;
+import jakarta.persistence.TypedQuery;
 import jakarta.persistence.criteria.*;
 import org.springframework.data.jpa.domain.Specification;
 import study.data_jpa.entity.Member;
 import study.data_jpa.entity.Team;
 
-public class MemberSpec {
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
 
-    public static Specification<Member> teamName(final String teamName) {
-        return (Specification<Member>) (root, query, builder) -> {
+/**
+ * 회원 검색 조건
+ * Specification 으로 그대로 쓸 수 있고, MemberSpec 끼리 and 로 묶으면 어떤 조건이 어떤 순서로 붙었는지(모양)를 기억한다.
+ * MemberRepository.search 는 이 모양별로 미리 만든 JPQL 에 값만 바인딩해서 실행한다.
+ */
+public class MemberSpec implements Specification<Member> {
 
-            if (StringUtils.isEmpty(teamName)) {
-                return null;
+    private enum Field {
+        TEAM_NAME("t.name"),
+        USERNAME("m.username");
+
+        private final String jpqlPath;
+
+        Field(String jpqlPath) {
+            this.jpqlPath = jpqlPath;
+        }
+    }
+
+    private record Condition(Field field, Object value) {
+    }
+
+    private final List<Condition> conditions;
+
+    private MemberSpec(List<Condition> conditions) {
+        this.conditions = conditions;
+    }
+
+    public static MemberSpec teamName(final String teamName) {
+        if (StringUtils.isEmpty(teamName)) {
+            return new MemberSpec(List.of()); // 조건 생략
+        }
+        return new MemberSpec(List.of(new Condition(Field.TEAM_NAME, teamName)));
+    }
+
+    public static MemberSpec username(final String username) {
+        return new MemberSpec(List.of(new Condition(Field.USERNAME, username)));
+    }
+
+    public MemberSpec and(MemberSpec other) {
+        List<Condition> combined = new ArrayList<>(conditions);
+        combined.addAll(other.conditions);
+        return new MemberSpec(List.copyOf(combined));
+    }
+
+    @Override
+    public Predicate toPredicate(Root<Member> root, CriteriaQuery<?> query, CriteriaBuilder builder) {
+        if (conditions.isEmpty()) {
+            return null;
+        }
+
+        Join<Member, Team> t = null;
+        List<Predicate> predicates = new ArrayList<>();
+        for (Condition condition : conditions) {
+            switch (condition.field()) {
+                case TEAM_NAME -> {
+                    if (t == null) {
+                        t = root.join("team", JoinType.INNER); // 회원과 조인
+                    }
+                    predicates.add(builder.equal(t.get("name"), condition.value()));
+                }
+                case USERNAME -> predicates.add(builder.equal(root.get("username"), condition.value()));
             }
+        }
+        return builder.and(predicates.toArray(new Predicate[0]));
+    }
+
+    /**
+     * 조건 종류와 순서만으로 만든 캐시 키 (값은 포함하지 않는다)
+     */
+    String shape() {
+        return conditions.stream()
+                .map(c -> c.field().name())
+                .collect(Collectors.joining(","));
+    }
+
+    /**
+     * null 비교는 "= :param" 으로 바꿀 수 없으므로 값이 모두 있을 때만 미리 만든 JPQL 을 쓴다
+     */
+    boolean isCompilable() {
+        return conditions.stream().allMatch(c -> c.value() != null);
+    }
 
-            Join<Member, Team> t = root.join("team", JoinType.INNER); // 회원과 조인
-            return builder.equal(t.get("name"), teamName);
-        };
+    String toJpql() {
+        StringBuilder jpql = new StringBuilder("select m from Member m");
+        if (conditions.stream().anyMatch(c -> c.field() == Field.TEAM_NAME)) {
+            jpql.append(" join m.team t");
+        }
+        for (int i = 0; i < conditions.size(); i++) {
+            jpql.append(i == 0 ? " where " : " and ")
+                    .append(conditions.get(i).field().jpqlPath)
+                    .append(" = :p").append(i);
+        }
+        return jpql.toString();
     }
 
-    public static Specification<Member> username(final String username) {
-        return (Specification<Member>) (root, query, builder) ->
-            builder.equal(root.get("username"), username);
+    void bind(TypedQuery<?> query) {
+        for (int i = 0; i < conditions.size(); i++) {
+            query.setParameter("p" + i, conditions.get(i).value());
+        }
     }
 
 }
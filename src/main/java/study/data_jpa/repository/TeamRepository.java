@@ -1,8 +1,18 @@
 package study.data_jpa.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import study.data_jpa.dto.TeamAggregateDto;
 import study.data_jpa.entity.Team;
 
+import java.util.Optional;
+
 public interface TeamRepository extends JpaRepository<Team, Long> {
 
+    // member 를 count/avg 하지 않고 팀 한 행만 읽는다
+    @Query("select new study.data_jpa.dto.TeamAggregateDto(t.id, t.name, t.memberCount, t.ageSum, t.ageMin, t.ageMax)" +
+            " from Team t where t.id = :id")
+    Optional<TeamAggregateDto> findAggregateById(@Param("id") Long id);
+
 }
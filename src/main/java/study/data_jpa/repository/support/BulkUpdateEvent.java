@@ -0,0 +1,13 @@
+package study.data_jpa.repository.support;
+
+import java.util.List;
+
+// @Modifying 벌크 쿼리처럼 엔티티 이벤트 없이 DB를 직접 바꾸는 연산이 끝났음을 알린다
+// ids 는 바뀐 행의 기본 키 (알 수 없으면 빈 리스트)
+public record BulkUpdateEvent(Class<?> domainType, String source, int affectedRows, List<?> ids) {
+
+    public BulkUpdateEvent(Class<?> domainType, String source, int affectedRows) {
+        this(domainType, source, affectedRows, List.of());
+    }
+
+}
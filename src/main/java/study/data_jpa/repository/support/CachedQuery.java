@@ -0,0 +1,26 @@
+package study.data_jpa.repository.support;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 리포지토리 쿼리 메서드의 결과를 (메서드, 인자) 기준으로 캐시한다.
+ * evictOn 에 지정한 엔티티가 저장/수정/삭제되거나 벌크 업데이트되면 비워진다.
+ * 영속성 컨텍스트에 속한 엔티티를 세션 사이에 공유하지 않도록 DTO/프로젝션 결과에만 사용한다.
+ * 캐시에서 꺼낼 때는 auto flush 가 일어나지 않으므로, 같은 트랜잭션에서 flush 전의 변경은 보이지 않을 수 있다.
+ * evictOn 엔티티를 이미 flush 한 트랜잭션에서는 캐시를 거치지 않는다 (커밋 전 데이터를 공유하지 않도록).
+ * List/Set 결과는 읽기 전용 복사본을 모든 호출자가 공유하므로 원소도 불변이어야 한다.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface CachedQuery {
+
+    long ttlSeconds() default 60;
+
+    long maxSize() default 100;
+
+    Class<?>[] evictOn();
+
+}
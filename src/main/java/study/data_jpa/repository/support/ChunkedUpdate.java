@@ -0,0 +1,103 @@
+package study.data_jpa.repository.support;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * 기본 키 구간을 나눠서 실행할 벌크 업데이트 정의
+ * <pre>
+ * ChunkedUpdate.of(Member.class, "m", "m.age = m.age + 1", "m.age >= :age")
+ *         .param("age", 20)
+ *         .chunkSize(1000)
+ *         .pauseMillis(50);
+ * </pre>
+ */
+public class ChunkedUpdate {
+
+    private final Class<?> entityType;
+    private final String alias;
+    private final String setClause;
+    private final String whereClause;
+    private final Map<String, Object> params = new LinkedHashMap<>();
+    private int chunkSize = 1000;
+    private long pauseMillis;
+    private long resumeAfterId;
+    private Consumer<ChunkedUpdateProgress> progressListener = progress -> { };
+
+    private ChunkedUpdate(Class<?> entityType, String alias, String setClause, String whereClause) {
+        this.entityType = entityType;
+        this.alias = alias;
+        this.setClause = setClause;
+        this.whereClause = whereClause;
+    }
+
+    public static ChunkedUpdate of(Class<?> entityType, String alias, String setClause, String whereClause) {
+        return new ChunkedUpdate(entityType, alias, setClause, whereClause);
+    }
+
+    public ChunkedUpdate param(String name, Object value) {
+        params.put(name, value);
+        return this;
+    }
+
+    // 한 트랜잭션(커밋)에서 다루는 id 구간 크기
+    public ChunkedUpdate chunkSize(int chunkSize) {
+        this.chunkSize = chunkSize;
+        return this;
+    }
+
+    // 청크 사이에 쉬는 시간 (다른 쓰기 작업에 양보)
+    public ChunkedUpdate pauseMillis(long pauseMillis) {
+        this.pauseMillis = pauseMillis;
+        return this;
+    }
+
+    // 실패했던 작업을 ChunkedUpdateException 의 lastCommittedId 이후부터 다시 시작
+    public ChunkedUpdate resumeAfterId(long resumeAfterId) {
+        this.resumeAfterId = resumeAfterId;
+        return this;
+    }
+
+    public ChunkedUpdate onProgress(Consumer<ChunkedUpdateProgress> progressListener) {
+        this.progressListener = progressListener;
+        return this;
+    }
+
+    Class<?> getEntityType() {
+        return entityType;
+    }
+
+    String getAlias() {
+        return alias;
+    }
+
+    String getSetClause() {
+        return setClause;
+    }
+
+    String getWhereClause() {
+        return whereClause;
+    }
+
+    Map<String, Object> getParams() {
+        return params;
+    }
+
+    int getChunkSize() {
+        return chunkSize;
+    }
+
+    long getPauseMillis() {
+        return pauseMillis;
+    }
+
+    long getResumeAfterId() {
+        return resumeAfterId;
+    }
+
+    Consumer<ChunkedUpdateProgress> getProgressListener() {
+        return progressListener;
+    }
+
+}
@@ -0,0 +1,17 @@
+package study.data_jpa.repository.support;
+
+public class ChunkedUpdateException extends RuntimeException {
+
+    private final ChunkedUpdateProgress progress;
+
+    public ChunkedUpdateException(ChunkedUpdateProgress progress, Throwable cause) {
+        super("청크 벌크 업데이트 실패 (lastCommittedId=" + progress.lastCommittedId() + ")", cause);
+        this.progress = progress;
+    }
+
+    // ChunkedUpdate.resumeAfterId(progress.lastCommittedId()) 로 이어서 실행
+    public ChunkedUpdateProgress getProgress() {
+        return progress;
+    }
+
+}
@@ -0,0 +1,161 @@
+package study.data_jpa.repository.support;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.FlushModeType;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.metamodel.EntityType;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * 한 번의 update ... where 대신 기본 키 구간마다 별도 트랜잭션으로 나눠 실행한다.
+ * 락은 청크 크기만큼만 짧게 잡히고, 실패하면 마지막으로 커밋된 id 부터 다시 시작할 수 있다.
+ * 영속성 컨텍스트 전체를 비우는 대신 실제로 바뀐 엔티티만 영속성 컨텍스트와 2차 캐시에서 제거한다 (flush 하지 않은 변경은 버려진다).
+ * BulkUpdateEvent 는 청크마다 그 청크 트랜잭션 안에서 발행한다.
+ */
+@Slf4j
+@Component
+public class ChunkedUpdateExecutor {
+
+    @PersistenceContext
+    private EntityManager em;
+
+    private final TransactionTemplate chunkTransaction;
+    private final ApplicationEventPublisher publisher;
+
+    public ChunkedUpdateExecutor(PlatformTransactionManager transactionManager, ApplicationEventPublisher publisher) {
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.chunkTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.publisher = publisher;
+    }
+
+    public ChunkedUpdateProgress execute(ChunkedUpdate update) {
+        String entityName = update.getEntityType().getSimpleName();
+        String alias = update.getAlias();
+        EntityType<?> entity = em.getMetamodel().entity(update.getEntityType());
+        String idPath = alias + "." + entity.getId(Long.class).getName();
+        String versioned = entity.hasVersionAttribute() ? "versioned " : ""; // 낙관적 락 버전도 함께 증가
+
+        String selectIds = "select " + idPath + " from " + entityName + " " + alias
+                + " where (" + update.getWhereClause() + ") and " + idPath + " > :fromId and " + idPath + " <= :toId";
+        // id 조회는 스냅샷 읽기, update 는 현재 값 읽기라 그 사이에 조건에서 벗어난 행이 있을 수 있으므로 조건을 다시 건다
+        String updateIds = "update " + versioned + entityName + " " + alias + " set " + update.getSetClause()
+                + " where " + idPath + " in :ids and (" + update.getWhereClause() + ")";
+
+        // 호출한 쪽 변경을 auto flush 하면 그 행 락을 바깥 트랜잭션이 잡게 되어 청크 트랜잭션이 기다리게 된다
+        Long maxId = em.createQuery("select max(" + idPath + ") from " + entityName + " " + alias, Long.class)
+                .setFlushMode(FlushModeType.COMMIT)
+                .getSingleResult();
+        long max = maxId == null ? 0 : maxId;
+
+        long start = System.currentTimeMillis();
+        long lastId = update.getResumeAfterId();
+        long affectedRows = 0;
+        int chunks = 0;
+
+        while (lastId < max) {
+            long fromId = lastId;
+            long toId = Math.min(lastId + update.getChunkSize(), max);
+            Chunk chunk;
+            try {
+                chunk = chunkTransaction.execute(status -> {
+                    TypedQuery<Long> select = em.createQuery(selectIds, Long.class)
+                            .setParameter("fromId", fromId)
+                            .setParameter("toId", toId);
+                    List<Long> chunkIds = bind(select, selectIds, update).getResultList();
+                    if (chunkIds.isEmpty()) {
+                        return new Chunk(chunkIds, 0);
+                    }
+                    int updated = bind(em.createQuery(updateIds), updateIds, update)
+                            .setParameter("ids", chunkIds)
+                            .executeUpdate();
+                    if (updated > 0) {
+                        // 청크 트랜잭션 안에서 발행해야 AFTER_COMMIT 리스너(CountCache, TeamAggregateService)가
+                        // 바깥 트랜잭션이 아니라 이 청크의 커밋에 묶인다 (바깥이 롤백돼도 이미 커밋된 청크는 반영)
+                        publisher.publishEvent(new BulkUpdateEvent(update.getEntityType(), "chunkedUpdate", updated, chunkIds));
+                    }
+                    return new Chunk(chunkIds, updated);
+                });
+            } catch (RuntimeException e) {
+                throw new ChunkedUpdateException(
+                        new ChunkedUpdateProgress(lastId, max, chunks, affectedRows, System.currentTimeMillis() - start), e);
+            }
+
+            lastId = toId;
+            chunks++;
+            affectedRows += chunk.updated();
+            if (chunk.updated() > 0) {
+                evict(update.getEntityType(), chunk.ids()); // 조건에서 벗어나 갱신되지 않은 id 도 있지만 제거해도 무해하다
+            }
+
+            ChunkedUpdateProgress progress =
+                    new ChunkedUpdateProgress(lastId, max, chunks, affectedRows, System.currentTimeMillis() - start);
+            update.getProgressListener().accept(progress);
+            log.debug("chunked update {} {}", entityName, progress);
+
+            if (update.getPauseMillis() > 0 && lastId < max) {
+                pause(update.getPauseMillis(), progress);
+            }
+        }
+
+        return new ChunkedUpdateProgress(lastId, max, chunks, affectedRows, System.currentTimeMillis() - start);
+    }
+
+    // set 절과 where 절 파라미터를 한 맵으로 받으므로 쿼리에 있는 것만 바인딩
+    private static <Q extends Query> Q bind(Q query, String jpql, ChunkedUpdate update) {
+        update.getParams().forEach((name, value) -> {
+            if (jpql.contains(":" + name)) {
+                query.setParameter(name, value);
+            }
+        });
+        return query;
+    }
+
+    /**
+     * 바뀐 엔티티만 호출한 쪽 영속성 컨텍스트와 2차 캐시에서 제거 (나머지 엔티티는 그대로 유지)
+     * 제거된 엔티티에 호출한 쪽이 flush 하지 않은 변경이 있었다면 그 변경은 버려진다 (청크 결과가 이긴다).
+     * 먼저 flush 하지 않는 이유: 바깥 트랜잭션이 그 행의 락을 잡은 채로 다른 커넥션의 청크 트랜잭션이 같은 행을 갱신하려 하면
+     * 락 타임아웃까지 기다린다 (이미 flush 한 경우도 마찬가지). 같은 엔티티를 바꿔야 한다면 execute 전에 커밋한다.
+     */
+    private void evict(Class<?> entityType, List<Long> ids) {
+        for (Long id : ids) {
+            em.getEntityManagerFactory().getCache().evict(entityType, id); // 캐시 대상이 아니면 아무 일도 하지 않는다
+        }
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return; // 바깥 트랜잭션이 없으면 영속성 컨텍스트도 없다
+        }
+
+        SharedSessionContractImplementor session = em.unwrap(SharedSessionContractImplementor.class);
+        EntityPersister persister = session.getFactory().getMappingMetamodel().getEntityDescriptor(entityType);
+        for (Long id : ids) {
+            Object managed = session.getPersistenceContextInternal().getEntity(session.generateEntityKey(id, persister));
+            if (managed != null) {
+                em.detach(managed);
+            }
+        }
+    }
+
+    private static void pause(long millis, ChunkedUpdateProgress progress) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ChunkedUpdateException(progress, e);
+        }
+    }
+
+    private record Chunk(List<Long> ids, int updated) {
+    }
+
+}
@@ -0,0 +1,13 @@
+package study.data_jpa.repository.support;
+
+/**
+ * @param lastCommittedId 여기까지의 id 구간은 커밋 완료
+ * @param maxId           작업 시작 시점의 최대 id (이후에 추가된 행은 대상이 아님)
+ */
+public record ChunkedUpdateProgress(long lastCommittedId, long maxId, int chunks, long affectedRows, long elapsedMillis) {
+
+    public boolean isDone() {
+        return lastCommittedId >= maxId;
+    }
+
+}
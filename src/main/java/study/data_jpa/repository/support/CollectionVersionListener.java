@@ -0,0 +1,57 @@
+package study.data_jpa.repository.support;
+
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+
+import java.util.Set;
+
+// 목록에 드러나는 엔티티가 저장/수정/삭제되면 커밋된 뒤 CountCache 의 목록 버전을 올린다 (롤백이면 그대로)
+public class CollectionVersionListener implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+    private final CountCache countCache;
+    private final Set<Class<?>> types;
+
+    public CollectionVersionListener(CountCache countCache, Set<Class<?>> types) {
+        this.countCache = countCache;
+        this.types = types;
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        bumpAfterCommit(event.getSession(), event.getPersister());
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        bumpAfterCommit(event.getSession(), event.getPersister());
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        bumpAfterCommit(event.getSession(), event.getPersister());
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+
+    private void bumpAfterCommit(EventSource session, EntityPersister persister) {
+        if (!types.contains(persister.getMappedClass())) {
+            return;
+        }
+        session.getActionQueue().registerProcess((AfterTransactionCompletionProcess) (success, s) -> {
+            if (success) {
+                countCache.bump();
+            }
+        });
+    }
+
+}
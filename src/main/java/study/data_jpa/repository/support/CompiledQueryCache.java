@@ -0,0 +1,54 @@
+package study.data_jpa.repository.support;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * 조건 조합의 모양(shape)별로 파라미터화된 JPQL 을 한 번만 만들어 재사용한다.
+ * 같은 JPQL 문자열이 반복되므로 SQM/SQL 변환 결과는 하이버네이트 쿼리 플랜 캐시에서 재사용되고,
+ * 호출마다 Criteria 트리를 새로 만들고 변환하는 비용이 사라진다.
+ */
+@Component
+public class CompiledQueryCache {
+
+    private final Map<String, String> queries = new ConcurrentHashMap<>();
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter fallbacks;
+
+    public CompiledQueryCache(MeterRegistry meterRegistry) {
+        this.hits = counter(meterRegistry, "hit");
+        this.misses = counter(meterRegistry, "miss");
+        this.fallbacks = counter(meterRegistry, "fallback");
+        meterRegistry.gaugeMapSize("compiled.query.shapes", Tags.empty(), queries);
+    }
+
+    public String get(String shape, Supplier<String> compiler) {
+        String jpql = queries.get(shape);
+        if (jpql != null) {
+            hits.increment();
+            return jpql;
+        }
+        misses.increment();
+        return queries.computeIfAbsent(shape, s -> compiler.get());
+    }
+
+    // 모양만으로 쿼리를 확정할 수 없어 Criteria 로 처리한 경우
+    public void recordFallback() {
+        fallbacks.increment();
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("compiled.query.cache")
+                .description("조건 조합별 컴파일된 쿼리 재사용 횟수")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+}
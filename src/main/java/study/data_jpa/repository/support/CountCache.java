@@ -0,0 +1,131 @@
+package study.data_jpa.repository.support;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * 페이징 count 쿼리 결과를 (쿼리 이름, 파라미터) 기준으로 짧은 TTL 동안 캐시한다.
+ * 파라미터 조합마다 키가 생기므로 개수를 제한하고, 만료된 항목은 읽지 않아도 제거된다.
+ * <p>
+ * 목록 버전(version)은 이 인스턴스에서 회원/팀 저장, 수정, 삭제(CollectionVersionListener)와
+ * 벌크 업데이트/일괄 삭제(BulkUpdateEvent)가 커밋될 때마다 올라간다.
+ * count 는 계산을 시작할 때의 버전과 함께 보관하고 버전이 바뀌면 다시 계산하므로, 같은 ETag 의 본문에 오래된 개수가 섞이지 않는다.
+ * <p>
+ * 목록 ETag 는 이 버전에 호출한 쪽이 DB 에서 읽은 공유 버전(ex. max(last_modified_date))과 versionTtl 단위 시간 구간을 더한다.
+ * 다른 인스턴스나 SQL 로 직접 바꾼 변경도 공유 버전으로 드러나고, 드러나지 않는 변경(다른 곳의 삭제 등)도 versionTtl 안에는 반영된다.
+ */
+@Component
+public class CountCache {
+
+    // 재시작하거나 다른 인스턴스로 가면 같은 숫자라도 다른 목록이므로 ETag 에 인스턴스 구분자를 붙인다
+    private final String instanceId = Long.toString(ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE, 36);
+    private final AtomicLong version = new AtomicLong();
+    private final long versionTtlMillis;
+    private final Cache<Key, Entry> cache;
+    private final Counter savedBySlice;
+    private final Counter savedByCache;
+
+    public CountCache(MeterRegistry meterRegistry,
+                      @Value("${member.paging.count-cache-ttl:5s}") Duration ttl,
+                      @Value("${member.paging.count-cache-max-size:10000}") long maxSize,
+                      @Value("${member.paging.list-version-ttl:30s}") Duration versionTtl) {
+        this.versionTtlMillis = versionTtl.toMillis();
+        this.cache = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maxSize)
+                .build();
+        this.savedBySlice = Counter.builder("repository.count.saved")
+                .description("생략된 페이징 count 쿼리 수")
+                .tag("mode", "slice")
+                .register(meterRegistry);
+        this.savedByCache = Counter.builder("repository.count.saved")
+                .description("생략된 페이징 count 쿼리 수")
+                .tag("mode", "cached")
+                .register(meterRegistry);
+    }
+
+    public <T> Slice<T> fetch(PagingMode mode, Pageable pageable,
+                              Function<Pageable, Page<T>> pageQuery,
+                              Function<Pageable, Slice<T>> sliceQuery,
+                              String queryName, List<?> params, LongSupplier countQuery) {
+        return switch (mode) {
+            case PAGE -> pageQuery.apply(pageable);
+            case SLICE -> {
+                savedBySlice.increment();
+                yield sliceQuery.apply(pageable);
+            }
+            case CACHED_COUNT -> {
+                Slice<T> slice = sliceQuery.apply(pageable);
+                // 마지막 페이지처럼 컨텐츠만으로 전체 개수를 알 수 있으면 count 자체를 호출하지 않는다
+                yield PageableExecutionUtils.getPage(slice.getContent(), pageable,
+                        () -> count(queryName, params, countQuery));
+            }
+        };
+    }
+
+    public long count(String queryName, List<?> params, LongSupplier countQuery) {
+        Key key = new Key(queryName, new ArrayList<>(params));
+        long current = version.get(); // count 도중 커밋된 변경은 다음 조회에서 버전이 달라 다시 계산된다
+
+        Entry cached = cache.getIfPresent(key);
+        if (cached != null && cached.version() == current) {
+            savedByCache.increment();
+            return cached.count();
+        }
+
+        long count = countQuery.getAsLong();
+        cache.put(key, new Entry(count, current));
+        return count;
+    }
+
+    public long version() {
+        return version.get();
+    }
+
+    // 직렬화 결과가 아니라 데이터 기준이므로 약한 ETag
+    public String eTag(Object sharedVersion) {
+        long epoch = System.currentTimeMillis() / versionTtlMillis;
+        return "W/\"" + instanceId + "-" + version.get() + "-" + epoch + "-" + sharedVersion + "\"";
+    }
+
+    // 커밋된 뒤에 호출한다. 커밋 전에 올리면 다른 요청이 새 버전으로 커밋 전 목록을 캐시할 수 있다
+    public void bump() {
+        version.incrementAndGet();
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    // 롤백이면 바뀐 게 없으므로 커밋된 뒤에만
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onBulkUpdate(BulkUpdateEvent event) {
+        bump();
+        invalidateAll();
+    }
+
+    private record Key(String queryName, List<?> params) {
+    }
+
+    private record Entry(long count, long version) {
+    }
+
+}
@@ -0,0 +1,20 @@
+package study.data_jpa.repository.support;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 컬렉션 파라미터(IN :param)가 chunkSize 보다 크면 chunkSize 씩 나눠 순서대로 실행하고 결과를 이어 붙인다.
+ * 각 청크의 파라미터 개수는 hibernate.query.in_clause_parameter_padding 으로 2의 거듭제곱에 맞춰지므로
+ * SQL 문자열 종류가 몇 개로 고정된다. 컬렉션 값은 순서를 유지한 채 중복 제거한 뒤 나눈다.
+ * List/Collection/Set 을 반환하는 메서드에만 사용하며, 그 외 반환 타입은 리포지토리 프록시를 만들 때 거부한다 (정렬은 청크 단위).
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface InListChunked {
+
+    int chunkSize() default 1000;
+
+}
@@ -0,0 +1,78 @@
+package study.data_jpa.repository.support;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.ProxyMethodInvocation;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+// @InListChunked 메서드의 큰 컬렉션 인자를 나눠서 실행
+public class InListChunkingInterceptor implements MethodInterceptor {
+
+    // 프록시를 만들 때 검사 (Page/Slice/Stream/단건 반환은 청크 결과를 이어 붙일 수 없다)
+    public InListChunkingInterceptor(Class<?> repositoryInterface) {
+        for (Method method : repositoryInterface.getMethods()) {
+            if (method.isAnnotationPresent(InListChunked.class)) {
+                validate(method);
+            }
+        }
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        InListChunked chunked = invocation.getMethod().getAnnotation(InListChunked.class);
+        if (chunked == null || !(invocation instanceof ProxyMethodInvocation proxyInvocation)) {
+            return invocation.proceed();
+        }
+
+        Object[] args = invocation.getArguments();
+        int index = collectionArgument(args, chunked.chunkSize());
+        if (index < 0) {
+            return invocation.proceed();
+        }
+
+        // 같은 값이 다른 청크에 들어가면 같은 행이 두 번 조회되므로 순서를 유지한 채 중복 제거
+        List<?> values = new ArrayList<>(new LinkedHashSet<>((Collection<?>) args[index]));
+        // 영속성 컨텍스트를 공유해야 하므로 청크는 같은 스레드에서 순서대로 실행
+        Collection<Object> merged = Set.class.isAssignableFrom(invocation.getMethod().getReturnType())
+                ? new LinkedHashSet<>() : new ArrayList<>();
+        for (int from = 0; from < values.size(); from += chunked.chunkSize()) {
+            Object[] chunkArgs = args.clone();
+            chunkArgs[index] = values.subList(from, Math.min(from + chunked.chunkSize(), values.size()));
+            Object result = proxyInvocation.invocableClone(chunkArgs).proceed();
+            if (result != null) {
+                merged.addAll((Collection<?>) result);
+            }
+        }
+        return merged;
+    }
+
+    private static void validate(Method method) {
+        Class<?> returnType = method.getReturnType();
+        boolean mergeable = returnType.isAssignableFrom(ArrayList.class)
+                || (Set.class.isAssignableFrom(returnType) && returnType.isAssignableFrom(LinkedHashSet.class));
+        if (!mergeable || !Collection.class.isAssignableFrom(returnType)) {
+            throw new IllegalStateException("@InListChunked 는 List/Collection/Set 반환 메서드에만 사용할 수 있습니다: " + method);
+        }
+        if (Arrays.stream(method.getParameterTypes()).noneMatch(Collection.class::isAssignableFrom)) {
+            throw new IllegalStateException("@InListChunked 메서드에 컬렉션 파라미터가 없습니다: " + method);
+        }
+    }
+
+    // chunkSize 를 넘는 첫 번째 컬렉션 인자의 위치 (없으면 -1)
+    private static int collectionArgument(Object[] args, int chunkSize) {
+        for (int i = 0; i < args.length; i++) {
+            if (args[i] instanceof Collection<?> collection && collection.size() > chunkSize) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+}
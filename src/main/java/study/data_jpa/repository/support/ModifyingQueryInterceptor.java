@@ -0,0 +1,151 @@
+package study.data_jpa.repository.support;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.metamodel.SingularAttribute;
+import lombok.extern.slf4j.Slf4j;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * @Modifying 쿼리와 상속받은 일괄 삭제(deleteAllInBatch 등)가 끝나면 BulkUpdateEvent 를 발행한다.
+ * captureIds 인 엔티티(받는 쪽이 바뀐 행만 처리하는 경우)의 JPQL update 는 실행 전에 같은 where 절로 바뀔 행의 id 를
+ * 최대 maxCapturedIds 개까지 먼저 조회해 이벤트에 담는다.
+ * 그 밖의 경우(네이티브 쿼리, delete, SpEL, 상한 초과, 조회 실패)는 빈 리스트이고 받는 쪽은 전체를 다시 본다.
+ * id 조회는 힌트일 뿐이라 어떤 경우에도 update 자체를 실패시키지 않는다
+ */
+@Slf4j
+public class ModifyingQueryInterceptor implements MethodInterceptor {
+
+    // update [versioned] Entity alias set ... (where 는 괄호 밖의 것을 따로 찾는다)
+    private static final Pattern JPQL_UPDATE = Pattern.compile(
+            "^\\s*update\\s+(?:versioned\\s+)?(\\w+)\\s+(\\w+)\\s+set\\s+(.+)$",
+            Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+    private static final Pattern WHERE = Pattern.compile("\\bwhere\\b", Pattern.CASE_INSENSITIVE);
+
+    // SimpleJpaRepository 의 delete ... in / delete all (영속성 컨텍스트를 거치지 않는다)
+    private static final Set<String> BATCH_DELETES = Set.of("deleteAllInBatch", "deleteAllByIdInBatch", "deleteInBatch");
+
+    private final Class<?> domainType;
+    private final ApplicationEventPublisher publisher;
+    private final ObjectProvider<EntityManagerFactory> entityManagerFactory;
+    private final boolean captureIds;
+    private final int maxCapturedIds;
+
+    public ModifyingQueryInterceptor(Class<?> domainType, ApplicationEventPublisher publisher,
+                                     ObjectProvider<EntityManagerFactory> entityManagerFactory,
+                                     boolean captureIds, int maxCapturedIds) {
+        this.domainType = domainType;
+        this.publisher = publisher;
+        this.entityManagerFactory = entityManagerFactory;
+        this.captureIds = captureIds;
+        this.maxCapturedIds = maxCapturedIds;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Method method = invocation.getMethod();
+        if (BATCH_DELETES.contains(method.getName())) {
+            // 상속받은 일괄 삭제는 @Modifying 도 엔티티 이벤트도 없으므로 여기서 알린다 (지운 행은 커밋 후 조회할 수 없어 id 는 비움)
+            Object result = invocation.proceed();
+            publisher.publishEvent(new BulkUpdateEvent(domainType, method.getName(), -1));
+            return result;
+        }
+        if (!method.isAnnotationPresent(Modifying.class)) {
+            return invocation.proceed();
+        }
+
+        List<?> ids = captureIds ? selectAffectedIds(method, invocation.getArguments()) : List.of();
+        Object result = invocation.proceed();
+
+        int affectedRows = result instanceof Number n ? n.intValue() : -1;
+        publisher.publishEvent(new BulkUpdateEvent(domainType, method.getName(), affectedRows, ids));
+        return result;
+    }
+
+    private List<?> selectAffectedIds(Method method, Object[] args) {
+        Query query = method.getAnnotation(Query.class);
+        if (query == null || query.nativeQuery()) {
+            return List.of();
+        }
+        Matcher update = JPQL_UPDATE.matcher(query.value());
+        if (!update.matches()) {
+            return List.of();
+        }
+        String where = topLevelWhere(update.group(3));
+        if (where == null || where.contains("#{")) {
+            return List.of(); // where 없는 전체 update, SpEL 파라미터(:#{...})는 스프링 데이터만 바인딩할 수 있다
+        }
+        EntityManagerFactory emf = entityManagerFactory.getObject();
+        EntityManager em = EntityManagerFactoryUtils.getTransactionalEntityManager(emf);
+        if (em == null) {
+            return List.of(); // 트랜잭션 밖이면 update 자체가 실패한다
+        }
+        String idName = em.getMetamodel().entity(domainType).getSingularAttributes().stream()
+                .filter(SingularAttribute::isId)
+                .map(SingularAttribute::getName)
+                .findFirst()
+                .orElse(null);
+        if (idName == null) {
+            return List.of(); // 복합 키
+        }
+
+        String alias = update.group(2);
+        String jpql = "select " + alias + "." + idName + " from " + update.group(1) + " " + alias + " where " + where;
+        try {
+            // 하이버네이트는 createQuery 가 실패하면 트랜잭션을 rollback-only 로 표시하므로 해석은 별도 EntityManager 에서 먼저 해 본다
+            try (EntityManager parser = emf.createEntityManager()) {
+                parser.createQuery(jpql);
+            }
+            jakarta.persistence.Query select = em.createQuery(jpql).setMaxResults(maxCapturedIds + 1);
+            Parameter[] parameters = method.getParameters();
+            for (int i = 0; i < parameters.length; i++) {
+                Param param = parameters[i].getAnnotation(Param.class);
+                if (param != null && where.contains(":" + param.value())) {
+                    select.setParameter(param.value(), args[i]);
+                } else if (param == null && where.contains("?" + (i + 1))) {
+                    select.setParameter(i + 1, args[i]);
+                }
+            }
+            List<?> ids = select.getResultList();
+            return ids.size() > maxCapturedIds ? List.of() : ids; // 너무 많으면 받는 쪽이 전체를 다시 보는 편이 싸다
+        } catch (RuntimeException e) {
+            log.warn("affected id capture skipped for {}: {}", method.getName(), e.getMessage());
+            return List.of();
+        }
+    }
+
+    // set 절의 서브쿼리 안 where 를 건너뛰고 괄호 밖의 where 뒤를 돌려준다
+    private static String topLevelWhere(String afterSet) {
+        Matcher where = WHERE.matcher(afterSet);
+        while (where.find()) {
+            int depth = 0;
+            for (int i = 0; i < where.start(); i++) {
+                char c = afterSet.charAt(i);
+                if (c == '(') {
+                    depth++;
+                } else if (c == ')') {
+                    depth--;
+                }
+            }
+            if (depth == 0) {
+                return afterSet.substring(where.end()).trim();
+            }
+        }
+        return null;
+    }
+
+}
@@ -0,0 +1,9 @@
+package study.data_jpa.repository.support;
+
+public enum PagingMode {
+
+    PAGE,         // 컨텐츠 + count 쿼리 (기본 Page)
+    SLICE,        // limit + 1 조회, count 쿼리 없음
+    CACHED_COUNT  // 컨텐츠는 매번 조회, count는 짧은 TTL 동안 캐시
+
+}
@@ -0,0 +1,161 @@
+package study.data_jpa.repository.support;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Component
+public class QueryResultCache {
+
+    private final Map<Method, Region> regions = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+
+    public QueryResultCache(MeterRegistry meterRegistry,
+                            @Value("${query-result-cache.enabled:true}") boolean enabled) {
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+    }
+
+    public Object get(Method method, CachedQuery cachedQuery, Object[] args, QueryCall call) throws Throwable {
+        if (!enabled) {
+            return call.proceed();
+        }
+        Region region = regions.computeIfAbsent(method, m -> createRegion(m, cachedQuery));
+        // 이 트랜잭션이 이미 flush 한 변경(커밋 전)이 결과에 섞이므로 공유 캐시를 읽지도 쓰지도 않는다
+        if (hasPendingInvalidation(region)) {
+            return call.proceed();
+        }
+        List<Object> key = args == null ? List.of() : Arrays.asList(args);
+
+        Entry cached = region.cache.getIfPresent(key);
+        if (cached != null && cached.generation() == region.generation.get()) {
+            return cached.value();
+        }
+
+        long generation = region.generation.get();
+        Object result = immutable(call.proceed());
+        // 조회하는 사이에 무효화됐다면 이전 데이터일 수 있으므로 넣지 않는다.
+        // 확인과 저장 사이에 무효화돼도 세대가 달라 읽을 때 버려진다
+        if (result != null && region.generation.get() == generation) {
+            region.cache.put(key, new Entry(generation, result));
+        }
+        return result;
+    }
+
+    private boolean hasPendingInvalidation(Region region) {
+        @SuppressWarnings("unchecked")
+        Set<Class<?>> pending = (Set<Class<?>>) TransactionSynchronizationManager.getResource(this);
+        return pending != null && pending.stream().anyMatch(region::dependsOn);
+    }
+
+    // 모든 호출자가 같은 인스턴스를 받으므로 컬렉션은 읽기 전용 복사본으로 (원소는 DTO/프로젝션처럼 불변이어야 한다)
+    private static Object immutable(Object result) {
+        if (result instanceof List<?> list) {
+            return Collections.unmodifiableList(new ArrayList<>(list));
+        }
+        if (result instanceof Set<?> set) {
+            return Collections.unmodifiableSet(new LinkedHashSet<>(set));
+        }
+        return result;
+    }
+
+    public void invalidate(Class<?> entityType) {
+        evict(entityType);
+
+        // 커밋/롤백 전에 다른 요청이 이전 데이터를 다시 캐시했을 수 있으므로 트랜잭션이 끝나면 한 번 더 비운다
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+
+        @SuppressWarnings("unchecked")
+        Set<Class<?>> pending = (Set<Class<?>>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) { // 트랜잭션당 한 번만 등록
+            Set<Class<?>> types = new HashSet<>();
+            TransactionSynchronizationManager.bindResource(this, types);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(QueryResultCache.this);
+                    types.forEach(QueryResultCache.this::evict);
+                }
+            });
+            pending = types;
+        }
+        pending.add(entityType);
+    }
+
+    private void evict(Class<?> entityType) {
+        for (Region region : regions.values()) {
+            if (region.dependsOn(entityType)) {
+                region.generation.incrementAndGet();
+                region.cache.invalidateAll();
+            }
+        }
+    }
+
+    public void invalidateAll() {
+        for (Region region : regions.values()) {
+            region.generation.incrementAndGet();
+            region.cache.invalidateAll();
+        }
+    }
+
+    @EventListener
+    public void onBulkUpdate(BulkUpdateEvent event) {
+        invalidate(event.domainType());
+    }
+
+    private Region createRegion(Method method, CachedQuery cachedQuery) {
+        Cache<List<Object>, Entry> cache = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofSeconds(cachedQuery.ttlSeconds()))
+                .maximumSize(cachedQuery.maxSize())
+                .recordStats()
+                .build();
+        // cache.gets{result=hit|miss}, cache.size, cache.evictions ...
+        CaffeineCacheMetrics.monitor(meterRegistry, cache,
+                method.getDeclaringClass().getSimpleName() + "." + method.getName());
+        return new Region(cache, cachedQuery.evictOn(), new AtomicLong());
+    }
+
+    private record Entry(long generation, Object value) {
+    }
+
+    @FunctionalInterface
+    public interface QueryCall {
+        Object proceed() throws Throwable;
+    }
+
+    private record Region(Cache<List<Object>, Entry> cache, Class<?>[] evictOn, AtomicLong generation) {
+
+        boolean dependsOn(Class<?> entityType) {
+            for (Class<?> type : evictOn) {
+                if (type.isAssignableFrom(entityType)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+    }
+
+}
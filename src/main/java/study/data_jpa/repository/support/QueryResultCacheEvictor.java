@@ -0,0 +1,40 @@
+package study.data_jpa.repository.support;
+
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+
+// 엔티티가 저장/수정/삭제되면 해당 엔티티에 의존하는 @CachedQuery 결과를 비운다
+public class QueryResultCacheEvictor implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+    private final QueryResultCache queryResultCache;
+
+    public QueryResultCacheEvictor(QueryResultCache queryResultCache) {
+        this.queryResultCache = queryResultCache;
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        queryResultCache.invalidate(event.getPersister().getMappedClass());
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        queryResultCache.invalidate(event.getPersister().getMappedClass());
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        queryResultCache.invalidate(event.getPersister().getMappedClass());
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+
+}
@@ -0,0 +1,25 @@
+package study.data_jpa.repository.support;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.beans.factory.ObjectProvider;
+
+public class QueryResultCacheInterceptor implements MethodInterceptor {
+
+    private final ObjectProvider<QueryResultCache> queryResultCache;
+
+    public QueryResultCacheInterceptor(ObjectProvider<QueryResultCache> queryResultCache) {
+        this.queryResultCache = queryResultCache;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        CachedQuery cachedQuery = invocation.getMethod().getAnnotation(CachedQuery.class);
+        if (cachedQuery == null) {
+            return invocation.proceed();
+        }
+        return queryResultCache.getObject()
+                .get(invocation.getMethod(), cachedQuery, invocation.getArguments(), invocation::proceed);
+    }
+
+}
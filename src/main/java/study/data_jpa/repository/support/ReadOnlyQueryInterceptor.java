@@ -0,0 +1,51 @@
+package study.data_jpa.repository.support;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.data_jpa.config.ReplicaRouting;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * org.hibernate.readOnly 힌트가 붙은 리포지토리 메서드를 replica 로 보낸다.
+ * 쓰기 트랜잭션에 참여한 경우에는 이미 primary 커넥션을 쓰므로 그대로 둔다.
+ */
+public class ReadOnlyQueryInterceptor implements MethodInterceptor {
+
+    private static final String READ_ONLY_HINT = "org.hibernate.readOnly";
+
+    private final Map<Method, Boolean> readOnlyMethods = new ConcurrentHashMap<>();
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        if (!readOnlyMethods.computeIfAbsent(invocation.getMethod(), ReadOnlyQueryInterceptor::hasReadOnlyHint)
+                || isReadWriteTransaction()) {
+            return invocation.proceed();
+        }
+
+        ReplicaRouting.enterReadOnly();
+        try {
+            return invocation.proceed();
+        } finally {
+            ReplicaRouting.exitReadOnly();
+        }
+    }
+
+    private static boolean isReadWriteTransaction() {
+        return TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    }
+
+    private static boolean hasReadOnlyHint(Method method) {
+        QueryHints hints = AnnotatedElementUtils.findMergedAnnotation(method, QueryHints.class);
+        return hints != null && Arrays.stream(hints.value())
+                .anyMatch(hint -> READ_ONLY_HINT.equals(hint.name()) && "true".equals(hint.value()));
+    }
+
+}
@@ -0,0 +1,125 @@
+package study.data_jpa.repository.support;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Window;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 리포지토리 메서드별 지연 시간(히스토그램), 호출/에러 수, 결과 건수를 기록한다.
+ * 미터는 메서드마다 한 번만 만들어 두고 호출마다 조회 비용 없이 재사용한다.
+ * - repository.method          : Timer (tag repository, method, outcome, exception)
+ * - repository.method.result.size : 컬렉션/Slice/Window/Optional/단건 결과의 건수
+ */
+@Component
+public class RepositoryMetrics {
+
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final boolean histogram;
+    private final Map<Key, MethodMeters> meters = new ConcurrentHashMap<>();
+
+    public RepositoryMetrics(MeterRegistry meterRegistry,
+                             @Value("${repository-metrics.enabled:true}") boolean enabled,
+                             @Value("${repository-metrics.histogram:true}") boolean histogram) {
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.histogram = histogram;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void record(String repository, Method method, long elapsedNanos, Object result, Throwable error) {
+        MethodMeters methodMeters = meters.computeIfAbsent(new Key(repository, method),
+                key -> new MethodMeters(key.repository(), key.method().getName()));
+
+        if (error != null) {
+            methodMeters.errorTimer(error).record(elapsedNanos, TimeUnit.NANOSECONDS);
+            return;
+        }
+        methodMeters.success.record(elapsedNanos, TimeUnit.NANOSECONDS);
+
+        long size = resultSize(result);
+        if (size >= 0) {
+            methodMeters.resultSize.record(size);
+        }
+    }
+
+    // 건수를 알 수 없는 결과(Stream, 숫자, void)는 -1
+    private static long resultSize(Object result) {
+        if (result == null) {
+            return 0;
+        }
+        if (result instanceof Collection<?> collection) {
+            return collection.size();
+        }
+        if (result instanceof Slice<?> slice) {
+            return slice.getNumberOfElements();
+        }
+        if (result instanceof Window<?> window) {
+            return window.size();
+        }
+        if (result instanceof Optional<?> optional) {
+            return optional.isPresent() ? 1 : 0;
+        }
+        if (result instanceof Number || result instanceof Boolean || result instanceof AutoCloseable) {
+            return -1;
+        }
+        return 1;
+    }
+
+    private record Key(String repository, Method method) {
+    }
+
+    private class MethodMeters {
+
+        private final String repository;
+        private final String method;
+        private final Timer success;
+        private final DistributionSummary resultSize;
+        private final Map<Class<?>, Timer> errors = new ConcurrentHashMap<>();
+
+        MethodMeters(String repository, String method) {
+            this.repository = repository;
+            this.method = method;
+            this.success = timer("SUCCESS", "none");
+            this.resultSize = DistributionSummary.builder("repository.method.result.size")
+                    .description("리포지토리 메서드 결과 건수")
+                    .tag("repository", repository)
+                    .tag("method", method)
+                    .register(meterRegistry);
+        }
+
+        Timer errorTimer(Throwable error) {
+            return errors.computeIfAbsent(error.getClass(), type -> timer("ERROR", type.getSimpleName()));
+        }
+
+        private Timer timer(String outcome, String exception) {
+            return Timer.builder("repository.method")
+                    .description("리포지토리 메서드 실행 시간")
+                    .tag("repository", repository)
+                    .tag("method", method)
+                    .tag("outcome", outcome)
+                    .tag("exception", exception)
+                    .publishPercentileHistogram(histogram)
+                    .minimumExpectedValue(Duration.ofMillis(1))
+                    .maximumExpectedValue(Duration.ofSeconds(10)) // 히스토그램 버킷 수 제한
+                    .register(meterRegistry);
+        }
+
+    }
+
+}
@@ -0,0 +1,47 @@
+package study.data_jpa.repository.support;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.beans.factory.ObjectProvider;
+import study.data_jpa.monitoring.RepositoryInvocation;
+
+public class RepositoryMetricsInterceptor implements MethodInterceptor {
+
+    private final String repository;
+    private final ObjectProvider<RepositoryMetrics> repositoryMetrics;
+
+    public RepositoryMetricsInterceptor(String repository, ObjectProvider<RepositoryMetrics> repositoryMetrics) {
+        this.repository = repository;
+        this.repositoryMetrics = repositoryMetrics;
+    }
+
+    // 느린 쿼리 로그가 SQL 을 실행한 리포지토리 메서드를 알 수 있도록 호출 동안 이름을 남긴다
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        RepositoryInvocation.push(repository + "." + invocation.getMethod().getName());
+        try {
+            return measure(invocation);
+        } finally {
+            RepositoryInvocation.pop();
+        }
+    }
+
+    private Object measure(MethodInvocation invocation) throws Throwable {
+        RepositoryMetrics metrics = repositoryMetrics.getIfAvailable();
+        if (metrics == null || !metrics.isEnabled()) {
+            return invocation.proceed();
+        }
+
+        long start = System.nanoTime();
+        Object result;
+        try {
+            result = invocation.proceed();
+        } catch (Throwable e) {
+            metrics.record(repository, invocation.getMethod(), System.nanoTime() - start, null, e);
+            throw e;
+        }
+        metrics.record(repository, invocation.getMethod(), System.nanoTime() - start, result, null);
+        return result;
+    }
+
+}
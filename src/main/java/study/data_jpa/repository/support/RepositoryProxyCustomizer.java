@@ -0,0 +1,56 @@
+package study.data_jpa.repository.support;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+
+// 스프링 데이터 리포지토리 프록시에 공통 인터셉터를 붙인다
+@Component
+public class RepositoryProxyCustomizer implements BeanPostProcessor {
+
+    private final ApplicationEventPublisher publisher;
+    private final ObjectProvider<QueryResultCache> queryResultCache; // BeanPostProcessor 라서 지연 조회
+    private final ObjectProvider<RepositoryMetrics> repositoryMetrics;
+    private final ObjectProvider<EntityManagerFactory> entityManagerFactory;
+    private final Set<Class<?>> captureIdTypes;
+    private final int maxCapturedIds;
+
+    public RepositoryProxyCustomizer(ApplicationEventPublisher publisher,
+                                     ObjectProvider<QueryResultCache> queryResultCache,
+                                     ObjectProvider<RepositoryMetrics> repositoryMetrics,
+                                     ObjectProvider<EntityManagerFactory> entityManagerFactory,
+                                     @Value("${bulk-update.capture-ids.domain-types:}") Class<?>[] captureIdTypes,
+                                     @Value("${bulk-update.capture-ids.max:10000}") int maxCapturedIds) {
+        this.publisher = publisher;
+        this.queryResultCache = queryResultCache;
+        this.repositoryMetrics = repositoryMetrics;
+        this.entityManagerFactory = entityManagerFactory;
+        this.captureIdTypes = Set.of(captureIdTypes);
+        this.maxCapturedIds = maxCapturedIds;
+    }
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+            factoryBean.addRepositoryFactoryCustomizer(factory ->
+                    factory.addRepositoryProxyPostProcessor((proxyFactory, repositoryInformation) -> {
+                        proxyFactory.addAdvice(new RepositoryMetricsInterceptor( // 캐시 적중까지 포함해 호출자 기준으로 측정
+                                repositoryInformation.getRepositoryInterface().getSimpleName(), repositoryMetrics));
+                        proxyFactory.addAdvice(new InListChunkingInterceptor(repositoryInformation.getRepositoryInterface()));
+                        Class<?> domainType = repositoryInformation.getDomainType();
+                        proxyFactory.addAdvice(new ModifyingQueryInterceptor(domainType, publisher, entityManagerFactory,
+                                captureIdTypes.contains(domainType), maxCapturedIds));
+                        proxyFactory.addAdvice(new QueryResultCacheInterceptor(queryResultCache));
+                        proxyFactory.addAdvice(new ReadOnlyQueryInterceptor());
+                    }));
+        }
+        return bean;
+    }
+
+}
@@ -0,0 +1,91 @@
+package study.data_jpa.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * 낙관적 락 충돌(@Version 불일치) 시 새 트랜잭션으로 다시 실행한다.
+ * 재시도할 때마다 엔티티를 다시 읽어야 하므로 work 안에서 조회부터 수정까지 모두 처리해야 한다.
+ * <pre>
+ * retryTemplate.execute("member.rename", () -> {
+ *     Member member = memberRepository.findById(id).orElseThrow();
+ *     member.setUsername(username);
+ *     return member;
+ * });
+ * </pre>
+ */
+@Slf4j
+@Component
+public class ConflictRetryTemplate {
+
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final int maxAttempts;
+    private final long initialBackoffMillis;
+    private final long maxBackoffMillis;
+
+    public ConflictRetryTemplate(PlatformTransactionManager transactionManager,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${conflict-retry.max-attempts:3}") int maxAttempts,
+                                 @Value("${conflict-retry.initial-backoff-ms:20}") long initialBackoffMillis,
+                                 @Value("${conflict-retry.max-backoff-ms:500}") long maxBackoffMillis) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.meterRegistry = meterRegistry;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffMillis = initialBackoffMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+    }
+
+    public <T> T execute(String name, Supplier<T> work) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                T result = transactionTemplate.execute(status -> work.get()); // 커밋 시점의 충돌까지 잡기 위해 트랜잭션째 재시도
+                counter("conflict.retry.success", name).increment();
+                return result;
+            } catch (OptimisticLockingFailureException e) {
+                counter("conflict.retry.conflicts", name).increment();
+                if (attempt >= maxAttempts) {
+                    counter("conflict.retry.exhausted", name).increment();
+                    throw e;
+                }
+                counter("conflict.retry.retries", name).increment();
+                log.debug("낙관적 락 충돌 {} (attempt {}/{})", name, attempt, maxAttempts);
+                backoff(attempt);
+            }
+        }
+    }
+
+    public void run(String name, Runnable work) {
+        execute(name, () -> {
+            work.run();
+            return null;
+        });
+    }
+
+    // 지수 백오프 + jitter (동시에 충돌한 요청들이 다시 같이 부딪히지 않도록)
+    private void backoff(int attempt) {
+        long delay = Math.min(maxBackoffMillis, initialBackoffMillis << (attempt - 1));
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(delay / 2, delay + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("재시도 대기 중 인터럽트", e);
+        }
+    }
+
+    private Counter counter(String meter, String name) {
+        return meterRegistry.counter(meter, "operation", name);
+    }
+
+}
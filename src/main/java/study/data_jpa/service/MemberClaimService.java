@@ -0,0 +1,31 @@
+package study.data_jpa.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import study.data_jpa.entity.Member;
+import study.data_jpa.repository.MemberRepository;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * 여러 워커(스레드/서버)가 같은 회원 백로그를 나눠서 처리한다.
+ * 각 워커는 잠기지 않은 행만 batchSize 만큼 가져가므로 서로 기다리지 않는다.
+ */
+@Service
+@RequiredArgsConstructor
+public class MemberClaimService {
+
+    private final MemberRepository memberRepository;
+
+    // 가져간 행의 락은 work 가 끝나고 커밋될 때까지 유지된다. 처리할 행이 없으면 0
+    @Transactional
+    public int processBatch(int age, int batchSize, Consumer<Member> work) {
+        List<Member> claimed = memberRepository.claimByAgeLessThan(age, Limit.of(batchSize));
+        claimed.forEach(work);
+        return claimed.size();
+    }
+
+}
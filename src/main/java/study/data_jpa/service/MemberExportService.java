@@ -0,0 +1,68 @@
+package study.data_jpa.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import study.data_jpa.dto.MemberDto;
+import study.data_jpa.repository.MemberRepository;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+@Service
+@RequiredArgsConstructor
+public class MemberExportService {
+
+    private static final int FLUSH_INTERVAL = 1000; // fetchSize 와 맞춰서 한 번 읽어온 만큼 내보낸다
+
+    private final MemberRepository memberRepository;
+    private final ObjectMapper objectMapper;
+
+    // 스트림은 트랜잭션(커넥션)이 열려 있는 동안만 읽을 수 있다
+    @Transactional(readOnly = true)
+    public long export(OutputStream out, ExportFormat format) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        if (format == ExportFormat.CSV) {
+            writer.write("id,username,teamName\n");
+        }
+
+        long count = 0;
+        try (Stream<MemberDto> stream = memberRepository.streamMemberDto()) {
+            Iterator<MemberDto> iterator = stream.iterator();
+            while (iterator.hasNext()) {
+                MemberDto dto = iterator.next();
+                if (format == ExportFormat.CSV) {
+                    writer.write(dto.getId() + "," + csv(dto.getUsername()) + "," + csv(dto.getTeamName()));
+                } else {
+                    writer.write(objectMapper.writeValueAsString(dto));
+                }
+                writer.write('\n');
+
+                if (++count % FLUSH_INTERVAL == 0) {
+                    writer.flush();
+                }
+            }
+        }
+
+        writer.flush();
+        return count;
+    }
+
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+}
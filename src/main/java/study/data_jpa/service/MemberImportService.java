@@ -0,0 +1,103 @@
+package study.data_jpa.service;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.data_jpa.dto.MemberImportDto;
+import study.data_jpa.dto.MemberImportResult;
+import study.data_jpa.entity.Member;
+import study.data_jpa.entity.Team;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Service
+public class MemberImportService {
+
+    static final int CHUNK_SIZE = 1000; // hibernate.jdbc.batch_size 의 배수
+
+    @PersistenceContext
+    private EntityManager em;
+
+    private final TransactionTemplate transactionTemplate;
+
+    public MemberImportService(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * 청크 단위로 커밋한다. 중간에 실패하면 이전 청크까지는 저장된 상태로 남는다.
+     */
+    public MemberImportResult importMembers(Iterator<MemberImportDto> source) {
+        long start = System.currentTimeMillis();
+        Map<String, Long> teamIds = new HashMap<>(); // 팀 이름 -> id, 청크를 넘어 재사용
+        long imported = 0;
+        long createdTeams = 0;
+
+        List<MemberImportDto> chunk = new ArrayList<>(CHUNK_SIZE);
+        while (source.hasNext()) {
+            chunk.add(source.next());
+            if (chunk.size() == CHUNK_SIZE || !source.hasNext()) {
+                long[] counts = transactionTemplate.execute(status -> importChunk(chunk, teamIds));
+                imported += counts[0];
+                createdTeams += counts[1];
+                chunk.clear();
+            }
+        }
+
+        return new MemberImportResult(imported, createdTeams, System.currentTimeMillis() - start);
+    }
+
+    private long[] importChunk(List<MemberImportDto> chunk, Map<String, Long> teamIds) {
+        long createdTeams = resolveTeams(chunk, teamIds);
+
+        for (MemberImportDto dto : chunk) {
+            Member member = new Member(dto.getUsername(), dto.getAge());
+            if (dto.getTeamName() != null) {
+                // changeTeam()은 team.members 컬렉션을 건드리므로 프록시 참조만 연결한다
+                member.setTeam(em.getReference(Team.class, teamIds.get(dto.getTeamName())));
+            }
+            em.persist(member);
+        }
+
+        em.flush(); // batch_size 단위로 묶여서 insert
+        em.clear();
+        return new long[]{chunk.size(), createdTeams};
+    }
+
+    // 청크에 처음 등장한 팀 이름은 in 쿼리 한 번으로 찾고, 없는 팀만 새로 만든다
+    private long resolveTeams(List<MemberImportDto> chunk, Map<String, Long> teamIds) {
+        Set<String> unknown = new LinkedHashSet<>();
+        for (MemberImportDto dto : chunk) {
+            if (dto.getTeamName() != null && !teamIds.containsKey(dto.getTeamName())) {
+                unknown.add(dto.getTeamName());
+            }
+        }
+        if (unknown.isEmpty()) {
+            return 0;
+        }
+
+        List<Object[]> found = em.createQuery("select t.name, t.id from Team t where t.name in :names", Object[].class)
+                .setParameter("names", unknown)
+                .getResultList();
+        for (Object[] row : found) {
+            teamIds.putIfAbsent((String) row[0], (Long) row[1]);
+            unknown.remove((String) row[0]);
+        }
+
+        for (String name : unknown) {
+            Team team = new Team(name);
+            em.persist(team);
+            teamIds.put(name, team.getId());
+        }
+        return unknown.size();
+    }
+
+}
@@ -0,0 +1,184 @@
+package study.data_jpa.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.data_jpa.dto.MemberDto;
+import study.data_jpa.dto.VersionedMemberDto;
+import study.data_jpa.entity.Member;
+import study.data_jpa.repository.MemberRepository;
+import study.data_jpa.repository.support.BulkUpdateEvent;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * id 로 회원을 찾는 짧은 수명의 캐시
+ * 같은 id 를 동시에 요청하면 먼저 온 요청 하나만 DB 에서 읽고 나머지는 그 결과를 기다린다 (request coalescing).
+ * 값은 ttl 동안만 유지하므로 단건 수정은 최대 ttl 만큼 늦게 보일 수 있고, 벌크 업데이트는 커밋되면 바로 비운다.
+ * 엔티티 대신 MemberDto 를 담아 영속성 컨텍스트와 무관하게 공유한다 (팀 이름까지 DTO 조회 한 번으로 읽는다).
+ * 읽기-쓰기 트랜잭션 안에서는 커밋 전 변경이 보일 수 있으므로 캐시를 거치지 않고 바로 읽는다.
+ */
+@Service
+public class MemberLookupService {
+
+    private final MemberRepository memberRepository;
+    private final AsyncCache<Long, Entry> cache;
+    private final Counter loads;
+
+    public MemberLookupService(MemberRepository memberRepository, MeterRegistry meterRegistry,
+                               @Value("${member.lookup.ttl:1s}") Duration ttl,
+                               @Value("${member.lookup.max-size:10000}") long maxSize) {
+        this.memberRepository = memberRepository;
+        this.cache = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maxSize)
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "memberLookup");
+        this.loads = Counter.builder("member.lookup.loads")
+                .description("회원 조회 캐시가 DB 를 조회한 횟수")
+                .register(meterRegistry);
+    }
+
+    // 없으면 null
+    public MemberDto find(Long id) {
+        return find(id, null);
+    }
+
+    /**
+     * minVersion 보다 오래된 값이 캐시에 있으면 한 번 버리고 다시 읽는다.
+     * 조건부 GET 에서 응답 본문이 방금 확인한 ETag(version) 보다 오래되지 않게 하기 위해 사용
+     */
+    public MemberDto find(Long id, Long minVersion) {
+        if (inReadWriteTransaction()) {
+            return member(read(List.of(id)).stream().findFirst().orElse(null));
+        }
+        CompletableFuture<Entry> loading = new CompletableFuture<>();
+        CompletableFuture<Entry> existing = cache.asMap().putIfAbsent(id, loading);
+        if (existing != null) {
+            Entry entry = join(existing); // 이미 캐시에 있거나 다른 요청이 읽는 중
+            if (entry == null || !entry.isOlderThan(minVersion)) {
+                return member(entry);
+            }
+            cache.asMap().remove(id, existing);
+            existing = cache.asMap().putIfAbsent(id, loading);
+            if (existing != null) {
+                return member(join(existing)); // 다른 요청이 이미 다시 읽는 중
+            }
+        }
+        return member(load(id, loading));
+    }
+
+    /**
+     * 캐시에 없는 id 만 findAllById 한 번으로 읽는다. 요청한 순서대로, 없는 id 는 빼고 반환
+     */
+    public List<MemberDto> findAll(Collection<Long> ids) {
+        boolean shared = !inReadWriteTransaction();
+        Map<Long, MemberDto> found = new LinkedHashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (Long id : ids) {
+            CompletableFuture<Entry> cached = shared ? cache.getIfPresent(id) : null;
+            Entry entry = cached == null ? null : join(cached);
+            if (entry != null) {
+                found.put(id, entry.member());
+            } else {
+                missing.add(id);
+            }
+        }
+
+        for (Entry entry : read(missing)) {
+            if (shared) {
+                cache.put(entry.member().getId(), CompletableFuture.completedFuture(entry));
+            }
+            found.put(entry.member().getId(), entry.member());
+        }
+
+        List<MemberDto> result = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            MemberDto member = found.get(id);
+            if (member != null) {
+                result.add(member);
+            }
+        }
+        return result;
+    }
+
+    // 호출한 스레드에서 직접 읽어야 트랜잭션/읽기 전용 라우팅이 호출자 기준으로 적용된다
+    private Entry load(Long id, CompletableFuture<Entry> loading) {
+        try {
+            Entry entry = read(List.of(id)).stream().findFirst().orElse(null);
+            loading.complete(entry); // null 은 캐시에 남지 않는다
+            return entry;
+        } catch (RuntimeException e) {
+            cache.asMap().remove(id, loading);
+            loading.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    // 요청한 순서와 무관, 없는 id 는 빠진다
+    private List<Entry> read(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        loads.increment();
+        return memberRepository.findVersionedDtosByIds(ids).stream().map(Entry::new).toList();
+    }
+
+    // 이 트랜잭션이 flush 한 미커밋 변경을 다른 요청과 공유하지 않는다
+    private static boolean inReadWriteTransaction() {
+        return TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    }
+
+    public void invalidateAll() {
+        cache.synchronous().invalidateAll();
+    }
+
+    // 커밋 전에 비우면 그 사이 다른 요청이 옛 값을 다시 채울 수 있다
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onBulkUpdate(BulkUpdateEvent event) {
+        if (Member.class.equals(event.domainType())) {
+            invalidateAll();
+        }
+    }
+
+    private static MemberDto member(Entry entry) {
+        return entry == null ? null : entry.member();
+    }
+
+    private static Entry join(CompletableFuture<Entry> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    private record Entry(MemberDto member, Long version) {
+
+        Entry(VersionedMemberDto member) {
+            this(member.toMemberDto(), member.getVersion());
+        }
+
+        boolean isOlderThan(Long minVersion) {
+            return minVersion != null && (version == null || version < minVersion);
+        }
+
+    }
+
+}
@@ -0,0 +1,73 @@
+package study.data_jpa.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import study.data_jpa.dto.MemberDto;
+import study.data_jpa.entity.UsernameSearch;
+import study.data_jpa.repository.MemberRepository;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * username 검색 (Member 의 username_key 인덱스, member_username_token 의 (token, member_id) 인덱스 사용)
+ * 정렬을 인덱스 순서로 고정하고 count 없이 Slice 로 반환하므로 회원 수가 늘어도 페이지 크기만큼만 읽는다.
+ */
+@Service
+@RequiredArgsConstructor
+public class MemberSearchService {
+
+    static final int MAX_TOKENS = 10;
+
+    private static final Sort PREFIX_SORT = Sort.by("usernameKey", "id");
+    // 긴 단어일수록 일치하는 회원이 적다고 보고 조회를 이끄는 토큰으로 쓴다 (길이가 같으면 사전 순으로 SQL 고정)
+    private static final Comparator<String> DRIVING_TOKEN_FIRST =
+            Comparator.comparingInt(String::length).reversed().thenComparing(Comparator.naturalOrder());
+
+    private final MemberRepository memberRepository;
+
+    public Slice<MemberDto> search(UsernameSearchType type, String query, Pageable pageable) {
+        return switch (type) {
+            case PREFIX -> searchByPrefix(query, pageable);
+            case TOKEN -> searchByTokens(query, pageable);
+        };
+    }
+
+    public Slice<MemberDto> searchByPrefix(String prefix, Pageable pageable) {
+        String key = UsernameSearch.key(prefix);
+        if (key == null || key.isEmpty()) {
+            return new SliceImpl<>(List.of(), pageable, false);
+        }
+        return memberRepository.searchByUsernameKey(escapeLike(key) + "%", withSort(pageable, PREFIX_SORT));
+    }
+
+    public Slice<MemberDto> searchByTokens(String query, Pageable pageable) {
+        Set<String> tokens = UsernameSearch.tokens(query);
+        if (tokens.isEmpty()) {
+            return new SliceImpl<>(List.of(), pageable, false);
+        }
+        if (tokens.size() > MAX_TOKENS) {
+            throw new IllegalArgumentException("검색어는 최대 " + MAX_TOKENS + "단어까지 가능합니다");
+        }
+        // 정렬은 id 순으로 고정 (조회를 이끄는 토큰 인덱스 순서)
+        return memberRepository.searchByUsernameTokens(tokens.stream().sorted(DRIVING_TOKEN_FIRST).toList(),
+                PageRequest.of(pageable.getPageNumber(), pageable.getPageSize()));
+    }
+
+    // 요청한 정렬은 무시한다. 인덱스 순서와 다르면 매칭된 행을 모두 읽어 정렬해야 한다
+    private static Pageable withSort(Pageable pageable, Sort sort) {
+        return PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), sort);
+    }
+
+    // like 패턴 문자(%, _)는 그대로 찾도록 '!' 로 escape
+    static String escapeLike(String value) {
+        return value.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+    }
+
+}
@@ -0,0 +1,44 @@
+package study.data_jpa.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import study.data_jpa.entity.Member;
+import study.data_jpa.entity.Team;
+import study.data_jpa.repository.MemberRepository;
+import study.data_jpa.repository.TeamRepository;
+
+// 회원 변경은 락 없이 @Version 으로 충돌을 감지하고, 충돌하면 ConflictRetryTemplate 이 다시 실행한다
+@Service
+@RequiredArgsConstructor
+public class MemberService {
+
+    private final MemberRepository memberRepository;
+    private final TeamRepository teamRepository;
+    private final ConflictRetryTemplate retryTemplate;
+
+    public Member rename(Long memberId, String username) {
+        return retryTemplate.execute("member.rename", () -> {
+            Member member = memberRepository.findById(memberId).orElseThrow();
+            member.setUsername(username);
+            return member;
+        });
+    }
+
+    public Member addAge(Long memberId, int delta) {
+        return retryTemplate.execute("member.addAge", () -> {
+            Member member = memberRepository.findById(memberId).orElseThrow();
+            member.setAge(member.getAge() + delta);
+            return member;
+        });
+    }
+
+    public Member moveTeam(Long memberId, Long teamId) {
+        return retryTemplate.execute("member.moveTeam", () -> {
+            Member member = memberRepository.findById(memberId).orElseThrow();
+            Team team = teamRepository.findById(teamId).orElseThrow();
+            member.changeTeam(team);
+            return member;
+        });
+    }
+
+}
@@ -0,0 +1,142 @@
+package study.data_jpa.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.data_jpa.entity.Member;
+import study.data_jpa.entity.Team;
+import study.data_jpa.entity.TeamAggregateListener;
+import study.data_jpa.repository.support.BulkUpdateEvent;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Team 집계 컬럼을 member 기준으로 다시 계산한다.
+ * 엔티티 이벤트가 없는 벌크 업데이트가 커밋되면 바뀐 회원의 팀만 맞추고, 주기적으로 전체 팀을 검사해 어긋난 팀만 고친다.
+ * (평소 변경은 TeamAggregateListener 가 증분으로 반영)
+ */
+@Slf4j
+@Service
+public class TeamAggregateService {
+
+    private static final String DRIFTED = " and (t.member_count <> (select count(*) from member m where m.team_id = t.team_id)"
+            + " or t.age_sum <> (select coalesce(sum(m.age), 0) from member m where m.team_id = t.team_id)"
+            + " or coalesce(t.age_min, -1) <> coalesce((select min(m.age) from member m where m.team_id = t.team_id), -1)"
+            + " or coalesce(t.age_max, -1) <> coalesce((select max(m.age) from member m where m.team_id = t.team_id), -1))";
+
+    private static final int IN_CHUNK_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate recomputeTransaction;
+    private final EntityManagerFactory emf;
+    private final Counter driftCounter;
+    private final int reconcileChunkSize;
+
+    public TeamAggregateService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                EntityManagerFactory emf, MeterRegistry meterRegistry,
+                                @Value("${team-aggregate.reconcile-chunk-size:1000}") int reconcileChunkSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        // 커밋 후 이벤트에서도 실행되므로 (그 시점엔 이전 트랜잭션 자원이 남아 있어 커밋되지 않는다) 항상 새 트랜잭션
+        this.recomputeTransaction = new TransactionTemplate(transactionManager);
+        this.recomputeTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.emf = emf;
+        this.driftCounter = Counter.builder("team.aggregate.drift")
+                .description("정합성 작업이 고친 팀 수")
+                .register(meterRegistry);
+        this.reconcileChunkSize = reconcileChunkSize;
+    }
+
+    /**
+     * 팀마다 member 기준으로 다시 계산한다. IN 절은 1000개씩, 청크마다 별도 트랜잭션으로 커밋한 뒤 2차 캐시에서 제거
+     * (커밋 전에 제거하면 다른 요청이 이전 집계를 다시 캐시할 수 있다). 바깥 트랜잭션이 member 를 잠그고 있지 않을 때 호출
+     */
+    public int recompute(Collection<Long> teamIds) {
+        List<Long> ids = List.copyOf(new TreeSet<>(teamIds)); // team_id 순서로 갱신해 데드락을 피한다
+        int updated = 0;
+        for (int from = 0; from < ids.size(); from += IN_CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(from + IN_CHUNK_SIZE, ids.size()));
+            Integer chunkUpdated = recomputeTransaction.execute(status -> jdbcTemplate.update(
+                    TeamAggregateListener.RECOMPUTE_ALL_COLUMNS + " where t.team_id in (" + placeholders(chunk) + ")",
+                    chunk.toArray()));
+            chunk.forEach(id -> emf.getCache().evict(Team.class, id));
+            updated += chunkUpdated == null ? 0 : chunkUpdated;
+        }
+        return updated;
+    }
+
+    /**
+     * 벌크 업데이트는 엔티티 이벤트가 없으므로 커밋된 뒤 바뀐 회원의 팀만 다시 계산한다.
+     * id 를 모르는 벌크 업데이트(네이티브 쿼리 등)는 team_id 구간마다 어긋난 팀만 찾아서 고친다 (읽기만 하므로 팀 행을 잠그지 않는다)
+     * 회원의 팀을 벌크로 옮기면 이전 팀은 알 수 없으므로 reconcile 이 맞춘다.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onBulkUpdate(BulkUpdateEvent event) {
+        if (!Member.class.equals(event.domainType()) || event.affectedRows() == 0) {
+            return;
+        }
+        if (event.ids().isEmpty()) {
+            recomputeDrifted();
+            return;
+        }
+
+        Set<Long> teamIds = new TreeSet<>();
+        List<?> memberIds = event.ids();
+        for (int from = 0; from < memberIds.size(); from += IN_CHUNK_SIZE) {
+            List<?> chunk = memberIds.subList(from, Math.min(from + IN_CHUNK_SIZE, memberIds.size()));
+            teamIds.addAll(jdbcTemplate.queryForList(
+                    "select distinct team_id from member where team_id is not null and member_id in (" + placeholders(chunk) + ")",
+                    Long.class, chunk.toArray()));
+        }
+        recompute(teamIds);
+    }
+
+    /**
+     * team_id 구간마다 어긋난 팀만 다시 계산한다 (구간마다 짧게 커밋되도록 트랜잭션 밖에서 실행)
+     * 동시에 커밋된 변경과 겹쳐 생기는 오차나 SQL 로 직접 고친 데이터를 맞춘다.
+     */
+    @Scheduled(fixedDelayString = "${team-aggregate.reconcile-interval:PT10M}",
+            initialDelayString = "${team-aggregate.reconcile-interval:PT10M}")
+    public int reconcile() {
+        int corrected = recomputeDrifted();
+        if (corrected > 0) {
+            driftCounter.increment(corrected);
+            log.warn("팀 집계 불일치 {}건을 다시 계산했습니다", corrected);
+        }
+        return corrected;
+    }
+
+    // 구간마다 어긋난 팀 id 만 읽고 그 팀만 갱신한다
+    private int recomputeDrifted() {
+        Long maxId = jdbcTemplate.queryForObject("select max(team_id) from team", Long.class);
+        if (maxId == null) {
+            return 0;
+        }
+
+        int corrected = 0;
+        for (long fromId = 0; fromId < maxId; fromId += reconcileChunkSize) {
+            List<Long> drifted = jdbcTemplate.queryForList("select t.team_id from team t where t.team_id > ? and t.team_id <= ?"
+                    + DRIFTED, Long.class, fromId, fromId + reconcileChunkSize);
+            corrected += recompute(drifted);
+        }
+        return corrected;
+    }
+
+    private static String placeholders(List<?> values) {
+        return String.join(",", Collections.nCopies(values.size(), "?"));
+    }
+
+}
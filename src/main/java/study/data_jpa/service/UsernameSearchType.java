@@ -0,0 +1,8 @@
+package study.data_jpa.service;
+
+public enum UsernameSearchType {
+
+    PREFIX, // 대소문자 무시 앞부분 일치
+    TOKEN   // 단어 단위, 모든 단어를 포함하는 회원
+
+}
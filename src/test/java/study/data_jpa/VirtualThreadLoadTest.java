@@ -0,0 +1,106 @@
+package study.data_jpa;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import study.data_jpa.entity.Member;
+import study.data_jpa.repository.MemberRepository;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+import static org.assertj.core.api.Assertions.*;
+
+// 플랫폼 스레드 vs 가상 스레드 모드의 /members/{id}, /members 처리량과 p99 비교 (./gradlew benchmarkTest)
+@Tag("benchmark")
+class VirtualThreadLoadTest {
+
+    static final int REQUESTS = 5_000;
+    static final int CONCURRENCY = 1_000;
+
+    @Test
+    public void platformVsVirtualThreads() throws Exception {
+        Result platform = run(false);
+        Result virtual = run(true);
+
+        System.out.println("platform threads : " + platform);
+        System.out.println("virtual threads  : " + virtual);
+
+        assertThat(platform.errors).isZero();
+        assertThat(virtual.errors).isZero();
+    }
+
+    private Result run(boolean virtualThreads) throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(DataJpaApplication.class)
+                .profiles("h2")
+                .properties("server.port=0",
+                        "spring.threads.virtual.enabled=" + virtualThreads,
+                        "spring.datasource.hikari.maximum-pool-size=10")
+                .run()) {
+
+            MemberRepository memberRepository = context.getBean(MemberRepository.class);
+            List<Long> ids = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                ids.add(memberRepository.save(new Member("member" + i, i)).getId());
+            }
+
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            HttpClient client = HttpClient.newHttpClient();
+            Semaphore inFlight = new Semaphore(CONCURRENCY);
+            List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+            List<Future<Integer>> futures = new ArrayList<>();
+
+            long start = System.nanoTime();
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int i = 0; i < REQUESTS; i++) {
+                    String path = i % 2 == 0 ? "/members/" + ids.get(i % ids.size()) : "/members?page=" + (i % 10);
+                    HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).build();
+                    inFlight.acquire();
+                    futures.add(executor.submit(() -> {
+                        long begin = System.nanoTime();
+                        try {
+                            return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                        } finally {
+                            latencies.add(System.nanoTime() - begin);
+                            inFlight.release();
+                        }
+                    }));
+                }
+            }
+            long elapsed = System.nanoTime() - start;
+
+            int errors = 0;
+            for (Future<Integer> future : futures) {
+                if (future.get() != 200) {
+                    errors++;
+                }
+            }
+
+            List<Long> sorted = new ArrayList<>(latencies);
+            Collections.sort(sorted);
+            long p99 = sorted.get((int) (sorted.size() * 0.99) - 1);
+            return new Result(REQUESTS * 1_000_000_000.0 / elapsed, p99 / 1_000_000.0, errors);
+        }
+    }
+
+    record Result(double requestsPerSecond, double p99Millis, int errors) {
+
+        @Override
+        public String toString() {
+            return String.format("%.0f req/s, p99 %.1f ms, errors %d", requestsPerSecond, p99Millis, errors);
+        }
+
+    }
+
+}
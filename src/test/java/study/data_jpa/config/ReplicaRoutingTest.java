@@ -0,0 +1,121 @@
+package study.data_jpa.config;
+
+import com.github.benmanes.caffeine.cache.Ticker;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.data_jpa.entity.Member;
+import study.data_jpa.repository.MemberRepository;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.*;
+
+// 임베디드 H2 두 개를 primary / replica 로 두고, 어느 쪽에서 읽었는지는 서로 다른 데이터로 구분한다 (복제는 하지 않는다)
+@SpringBootTest(properties = {
+        "spring.datasource.url=" + ReplicaRoutingTest.PRIMARY_URL,
+        "replica-datasource.enabled=true",
+        "replica-datasource.urls=" + ReplicaRoutingTest.REPLICA_URL,
+        "replica-datasource.read-your-writes-window=300ms"
+})
+@ActiveProfiles("h2")
+class ReplicaRoutingTest {
+
+    static final String PRIMARY_URL = "jdbc:h2:mem:routing_primary;MODE=MySQL;DB_CLOSE_DELAY=-1";
+    static final String REPLICA_URL = "jdbc:h2:mem:routing_replica;MODE=MySQL;DB_CLOSE_DELAY=-1";
+    static final String INSERT_MEMBER = "insert into member (member_id, username, age, version) values (1000000, ?, 10, 0)";
+
+    // read-your-writes 창을 재는 시계, 테스트에서 직접 흘려보낸다
+    static final AtomicLong windowNanos = new AtomicLong();
+
+    @TestConfiguration
+    static class WindowClockConfig {
+
+        @Bean
+        public Ticker replicaRoutingWindowTicker() {
+            return windowNanos::get;
+        }
+
+    }
+
+    @Autowired MemberRepository memberRepository;
+    @Autowired PlatformTransactionManager transactionManager;
+
+    JdbcTemplate primary = new JdbcTemplate(new DriverManagerDataSource(PRIMARY_URL, "sa", ""));
+    JdbcTemplate replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+
+    @BeforeEach
+    public void setUp() {
+        // primary 스키마를 replica 에 복사 (ddl-auto 는 primary 에만 적용된다)
+        List<String> ddl = primary.queryForList("script nodata", String.class);
+        replica.execute("drop all objects");
+        ddl.forEach(replica::execute);
+
+        primary.update("delete from member_username_token");
+        primary.update("delete from member");
+        primary.update(INSERT_MEMBER, "onPrimary");
+        replica.update(INSERT_MEMBER, "onReplica");
+
+        // 이전 테스트의 쓰기 트랜잭션 때문에 primary 에 고정되지 않도록 테스트마다 다른 클라이언트로
+        ReplicaRouting.bindClient(UUID.randomUUID().toString());
+    }
+
+    @AfterEach
+    public void tearDown() {
+        ReplicaRouting.clearClient();
+    }
+
+    @Test
+    public void readOnlyTransactionUsesReplica() {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        TransactionTemplate readWrite = new TransactionTemplate(transactionManager);
+
+        assertThat(readOnly.execute(status -> usernames(memberRepository.findAll()))).containsExactly("onReplica");
+        assertThat(readWrite.execute(status -> usernames(memberRepository.findAll()))).containsExactly("onPrimary");
+    }
+
+    @Test
+    public void readOnlyHintUsesReplica() {
+        assertThat(memberRepository.findReadOnlyByUsername("onReplica")).isNotNull();
+        assertThat(memberRepository.findReadOnlyByUsername("onPrimary")).isNull();
+
+        // 쓰기 트랜잭션에 참여하면 primary
+        TransactionTemplate readWrite = new TransactionTemplate(transactionManager);
+        assertThat(readWrite.execute(status -> memberRepository.findReadOnlyByUsername("onPrimary"))).isNotNull();
+    }
+
+    @Test
+    public void readYourWrites() {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        memberRepository.save(new Member("written", 20));
+
+        // 커밋 직후에는 같은 클라이언트(스레드)의 읽기가 primary 로
+        assertThat(readOnly.execute(status -> usernames(memberRepository.findAll()))).contains("written");
+
+        windowNanos.addAndGet(Duration.ofMillis(299).toNanos());
+        assertThat(readOnly.execute(status -> usernames(memberRepository.findAll()))).contains("written");
+
+        windowNanos.addAndGet(Duration.ofMillis(2).toNanos());
+        assertThat(readOnly.execute(status -> usernames(memberRepository.findAll()))).containsExactly("onReplica");
+    }
+
+    private static List<String> usernames(List<Member> members) {
+        return members.stream().map(Member::getUsername).toList();
+    }
+
+}
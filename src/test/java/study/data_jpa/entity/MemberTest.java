@@ -2,6 +2,9 @@ package study.data_jpa.entity;
 
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -10,6 +13,8 @@ import study.data_jpa.repository.MemberRepository;
 
 import java.util.List;
 
+import static org.assertj.core.api.Assertions.*;
+
 @SpringBootTest
 @Transactional
 class MemberTest {
@@ -74,4 +79,60 @@ class MemberTest {
         System.out.println("findMember.LastModifiedBy = " + findMember.getLastModifiedBy());
     }
 
-}
\ No newline at end of file
+    @Test
+    public void changeTeamWithoutLoadingMembers() {
+        // given
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+        Member member1 = new Member("member1", 10, teamA);
+        em.persist(member1);
+        em.persist(new Member("member2", 20, teamA));
+
+        em.flush();
+        em.clear();
+        em.getEntityManagerFactory().getCache().evictAll();
+
+        Statistics statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        Team findTeamA = em.find(Team.class, teamA.getId());
+        Team findTeamB = em.find(Team.class, teamB.getId());
+        Member findMember1 = em.find(Member.class, member1.getId());
+        long collectionLoads = statistics.getCollectionLoadCount();
+
+        // when : 새 회원 추가, 기존 회원 이동
+        Member member3 = new Member("member3", 30, findTeamA);
+        em.persist(member3);
+        findMember1.changeTeam(findTeamB);
+
+        // then : 어느 팀의 members 도 로딩되지 않는다
+        assertThat(Hibernate.isInitialized(findTeamA.getMembers())).isFalse();
+        assertThat(Hibernate.isInitialized(findTeamB.getMembers())).isFalse();
+        assertThat(statistics.getCollectionLoadCount()).isEqualTo(collectionLoads);
+
+        // 나중에 로딩하면 DB 와 같은 상태
+        em.flush();
+        em.clear();
+        assertThat(em.find(Team.class, teamA.getId()).getMembers())
+                .extracting("username").containsExactlyInAnyOrder("member2", "member3");
+        assertThat(em.find(Team.class, teamB.getId()).getMembers())
+                .extracting("username").containsExactly("member1");
+    }
+
+    @Test
+    public void changeTeamKeepsLoadedMembersInSync() {
+        // given : 영속화 전(메모리)에서도 양방향이 맞아야 한다
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        Member member1 = new Member("member1", 10, teamA);
+
+        // when
+        member1.changeTeam(teamB);
+        member1.changeTeam(teamB);
+
+        // then
+        assertThat(teamA.getMembers()).isEmpty();
+        assertThat(teamB.getMembers()).containsExactly(member1);
+    }
+
+}
@@ -0,0 +1,113 @@
+package study.data_jpa.entity;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest
+class TeamCacheTest {
+
+    @Autowired
+    EntityManagerFactory emf;
+
+    Statistics statistics;
+
+    @BeforeEach
+    public void setUp() {
+        emf.getCache().evictAll();
+        statistics = emf.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        // 커밋한 데이터가 다른 테스트에 보이지 않도록 정리
+        inTransaction(em -> {
+            em.createQuery("delete from Member m").executeUpdate();
+            em.createQuery("delete from Team t").executeUpdate();
+        });
+        emf.getCache().evictAll();
+    }
+
+    @Test
+    public void teamLazyLoadFromSecondLevelCache() {
+        // given
+        Long[] memberId = new Long[1];
+        inTransaction(em -> {
+            Team team = new Team("cacheTeam");
+            em.persist(team);
+            Member member = new Member("cacheMember", 10, team);
+            em.persist(member);
+            memberId[0] = member.getId();
+        });
+        emf.getCache().evictAll();
+        statistics.clear();
+
+        // when : 세션(영속성 컨텍스트)을 바꿔가며 회원의 팀을 세 번 지연 로딩
+        for (int i = 0; i < 3; i++) {
+            inTransaction(em -> {
+                Member member = em.find(Member.class, memberId[0]);
+                System.out.println("member.team = " + member.getTeam().getName());
+            });
+        }
+
+        // then : 팀은 첫 번째만 DB에서 읽고 이후는 2차 캐시에서
+        CacheRegionStatistics region = statistics.getDomainDataRegionStatistics(Team.class.getName());
+        assertThat(region.getMissCount()).isEqualTo(1);
+        assertThat(region.getHitCount()).isEqualTo(2);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(4); // 회원 3번 + 팀 1번
+    }
+
+    @Test
+    public void changeTeamEvictsMembersCollection() {
+        // given
+        Long[] ids = new Long[3];
+        inTransaction(em -> {
+            Team teamA = new Team("teamA");
+            Team teamB = new Team("teamB");
+            em.persist(teamA);
+            em.persist(teamB);
+            Member member = new Member("member1", 10, teamA);
+            em.persist(member);
+            ids[0] = teamA.getId();
+            ids[1] = teamB.getId();
+            ids[2] = member.getId();
+        });
+        // 두 팀의 members 컬렉션을 캐시에 올린다
+        inTransaction(em -> {
+            assertThat(em.find(Team.class, ids[0]).getMembers()).hasSize(1);
+            assertThat(em.find(Team.class, ids[1]).getMembers()).isEmpty();
+        });
+
+        // when
+        inTransaction(em -> em.find(Member.class, ids[2]).changeTeam(em.find(Team.class, ids[1])));
+
+        // then : 이전 팀과 새 팀 모두 변경된 회원 목록을 본다
+        inTransaction(em -> {
+            assertThat(em.find(Team.class, ids[0]).getMembers()).isEmpty();
+            assertThat(em.find(Team.class, ids[1]).getMembers()).hasSize(1);
+        });
+    }
+
+    private void inTransaction(Consumer<EntityManager> work) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            em.getTransaction().begin();
+            work.accept(em);
+            em.getTransaction().commit();
+        } finally {
+            em.close();
+        }
+    }
+
+}
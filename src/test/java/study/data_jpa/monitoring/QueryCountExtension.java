@@ -0,0 +1,49 @@
+package study.data_jpa.monitoring;
+
+import org.junit.jupiter.api.extension.AfterEachCallback;
+import org.junit.jupiter.api.extension.BeforeEachCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.extension.ParameterContext;
+import org.junit.jupiter.api.extension.ParameterResolver;
+
+/**
+ * 테스트 메서드마다 SQL 집계 범위를 열고, QueryCount 파라미터로 넘겨준다.
+ * <pre>
+ * &#64;Test
+ * void test(QueryCount queryCount) {
+ *     ... // given
+ *     queryCount.reset();
+ *     ... // when
+ *     assertThat(queryCount.getSelect()).isEqualTo(1);
+ * }
+ * </pre>
+ */
+public class QueryCountExtension implements BeforeEachCallback, AfterEachCallback, ParameterResolver {
+
+    private static final ExtensionContext.Namespace NAMESPACE = ExtensionContext.Namespace.create(QueryCountExtension.class);
+
+    @Override
+    public void beforeEach(ExtensionContext context) {
+        QueryCount count = QueryCounter.start("test " + context.getDisplayName());
+        context.getStore(NAMESPACE).put(QueryCount.class, count);
+    }
+
+    @Override
+    public void afterEach(ExtensionContext context) {
+        QueryCount count = context.getStore(NAMESPACE).remove(QueryCount.class, QueryCount.class);
+        if (count != null) {
+            QueryCounter.stop(count);
+        }
+    }
+
+    @Override
+    public boolean supportsParameter(ParameterContext parameterContext, ExtensionContext extensionContext) {
+        return parameterContext.getParameter().getType() == QueryCount.class;
+    }
+
+    @Override
+    public Object resolveParameter(ParameterContext parameterContext, ExtensionContext extensionContext) {
+        return extensionContext.getStore(NAMESPACE).get(QueryCount.class, QueryCount.class);
+    }
+
+}
@@ -0,0 +1,65 @@
+package study.data_jpa.monitoring;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import study.data_jpa.repository.MemberRepository;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+// 임계값을 0 으로 두어 모든 SQL 을 느린 쿼리로 취급한다
+@SpringBootTest(properties = {"slow-query.threshold-ms=0", "slow-query.capacity=3"})
+class SlowQueryLogTest {
+
+    @Autowired SlowQueryLog slowQueryLog;
+    @Autowired SlowQueryEndpoint slowQueryEndpoint;
+    @Autowired MemberRepository memberRepository;
+
+    @BeforeEach
+    public void clear() {
+        slowQueryLog.clear();
+    }
+
+    @Test
+    public void capturesContextAndPlan() throws InterruptedException {
+        // when : HTTP 요청 범위 안에서 리포지토리 호출
+        QueryCount request = QueryCounter.start("GET /members");
+        try {
+            memberRepository.findByUsername("slowMember");
+        } finally {
+            QueryCounter.stop(request);
+        }
+
+        // then
+        List<SlowQuery> found = slowQueryEndpoint.slowQueries("MemberRepository.findByUsername", "/members", null);
+        assertThat(found).isNotEmpty();
+        SlowQuery slowQuery = found.get(0);
+        assertThat(slowQuery.getEndpoint()).isEqualTo("GET /members");
+        assertThat(slowQuery.getSqlWithValues()).contains("'slowMember'");
+
+        // EXPLAIN 은 비동기
+        for (int i = 0; i < 50 && slowQuery.getPlan() == null; i++) {
+            Thread.sleep(100);
+        }
+        assertThat(slowQuery.getPlan()).isNotBlank().doesNotStartWith("EXPLAIN 실패");
+    }
+
+    @Test
+    public void ringBuffer() {
+        for (int i = 0; i < 5; i++) {
+            memberRepository.findByUsername("member" + i);
+        }
+
+        List<SlowQuery> recent = slowQueryLog.recent();
+        assertThat(recent).hasSize(3);
+
+        // 다른 스레드(스케줄러 등)의 SQL 이 섞일 수 있으므로 리포지토리 메서드로 거른다
+        List<SlowQuery> findByUsername = slowQueryEndpoint.slowQueries("MemberRepository.findByUsername", null, null);
+        assertThat(findByUsername).isNotEmpty();
+        assertThat(findByUsername.get(0).getSqlWithValues()).contains("'member4'"); // 최신 순
+    }
+
+}
@@ -3,15 +3,30 @@ package study.data_jpa.repository;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.data_jpa.dto.ItemBulkInsertResult;
 import study.data_jpa.entity.Item;
 
-import static org.junit.jupiter.api.Assertions.*;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.*;
 
 @SpringBootTest
 class ItemRepositoryTest {
 
     @Autowired
     ItemRepository itemRepository;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+    @Autowired
+    PlatformTransactionManager transactionManager;
 
     @Test
     public void save() {
@@ -19,4 +34,46 @@ class ItemRepositoryTest {
         itemRepository.save(item);
     }
 
-}
\ No newline at end of file
+    @Test
+    @Transactional
+    public void bulkInsert() {
+        // given
+        itemRepository.save(new Item("bulk-0"));
+        itemRepository.flush();
+
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 2500; i++) {
+            ids.add("bulk-" + i);
+        }
+        ids.add("bulk-1"); // 요청 안에서 중복
+
+        // when
+        ItemBulkInsertResult result = itemRepository.bulkInsert(ids);
+
+        // then
+        assertThat(result.getInsertedIds()).hasSize(2499);
+        assertThat(result.getDuplicateIds()).containsExactlyInAnyOrder("bulk-0", "bulk-1");
+        assertThat(itemRepository.findExistingIds(ids)).hasSize(2500);
+        assertThat(itemRepository.findById("bulk-2499")).isPresent(); // id 타입이 String 이므로 그대로 조회
+    }
+
+    @Test
+    public void bulkInsertToleratesConcurrentInsert() {
+        try {
+            ItemBulkInsertResult result = new TransactionTemplate(transactionManager).execute(status -> {
+                itemRepository.findExistingIds(List.of("race-0")); // 스냅샷을 먼저 만들어 중복 확인에서 보이지 않게 한다
+                // 확인과 insert 사이에 다른 트랜잭션이 같은 id 를 커밋
+                CompletableFuture.runAsync(() -> jdbcTemplate.update("insert into item (id, created_date) values (?, ?)",
+                        "race-1", Timestamp.valueOf(LocalDateTime.now().minusSeconds(1)))).join();
+                return itemRepository.bulkInsert(List.of("race-1", "race-2"));
+            });
+
+            // then : 실패하지 않고 먼저 들어간 id 는 중복으로 돌려준다
+            assertThat(result.getInsertedIds()).containsExactly("race-2");
+            assertThat(result.getDuplicateIds()).containsExactly("race-1");
+        } finally {
+            jdbcTemplate.update("delete from item where id like 'race-%'");
+        }
+    }
+
+}
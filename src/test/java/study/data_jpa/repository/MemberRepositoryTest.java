@@ -1,18 +1,33 @@
 package study.data_jpa.repository;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import org.assertj.core.api.Assertions;
+import org.hibernate.Session;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.domain.*;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.test.context.transaction.TestTransaction;
 import org.springframework.transaction.annotation.Transactional;
 import study.data_jpa.dto.MemberDto;
+import study.data_jpa.dto.MemberVersionDto;
 import study.data_jpa.entity.Member;
 import study.data_jpa.entity.Team;
-
+import study.data_jpa.monitoring.QueryCount;
+import study.data_jpa.monitoring.QueryCountExtension;
+import study.data_jpa.repository.support.CountCache;
+import study.data_jpa.repository.support.InListChunked;
+import study.data_jpa.repository.support.InListChunkingInterceptor;
+import study.data_jpa.repository.support.PagingMode;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
 
@@ -20,10 +35,13 @@ import static org.assertj.core.api.Assertions.*;
 
 @SpringBootTest
 @Transactional
+@ExtendWith(QueryCountExtension.class)
 class MemberRepositoryTest {
 
     @Autowired MemberRepository memberRepository;
     @Autowired TeamRepository teamRepository;
+    @Autowired CountCache countCache;
+    @Autowired MeterRegistry meterRegistry;
     @PersistenceContext
     EntityManager em;
 
@@ -135,6 +153,43 @@ class MemberRepositoryTest {
         }
     }
 
+    @Test
+    public void cachedQuery() {
+        // given : 커밋된 데이터만 공유 캐시에 들어간다
+        memberRepository.save(new Member("회원1", 10));
+        memberRepository.save(new Member("회원2", 20));
+        em.flush();
+        List<String> uncommitted = memberRepository.findUsernameList(); // flush 한 트랜잭션 안에서는 캐시를 거치지 않는다
+        TestTransaction.flagForCommit();
+        TestTransaction.end();
+
+        // when
+        List<String> first = memberRepository.findUsernameList();
+        List<String> second = memberRepository.findUsernameList(); // 캐시에서 (쿼리 안 나감)
+        double hits = meterRegistry.get("cache.gets")
+                .tag("cache", "MemberRepository.findUsernameList").tag("result", "hit")
+                .functionCounter().count();
+
+        // 다른 트랜잭션이 저장하고 flush 한 뒤 롤백해도 캐시에 남지 않는다
+        TestTransaction.start();
+        memberRepository.save(new Member("회원3", 30)); // Member 저장 시 캐시 무효화
+        em.flush();
+        List<String> afterSave = memberRepository.findUsernameList();
+        TestTransaction.flagForRollback();
+        TestTransaction.end();
+        List<String> afterRollback = memberRepository.findUsernameList();
+
+        memberRepository.deleteAllInBatch(); // 커밋했으므로 직접 정리
+
+        // then
+        assertThat(uncommitted).containsExactlyInAnyOrder("회원1", "회원2");
+        assertThat(second).isEqualTo(first);
+        assertThatThrownBy(() -> second.add("회원4")).isInstanceOf(UnsupportedOperationException.class);
+        assertThat(hits).isGreaterThanOrEqualTo(1);
+        assertThat(afterSave).contains("회원1", "회원2", "회원3");
+        assertThat(afterRollback).containsExactlyInAnyOrder("회원1", "회원2");
+    }
+
     @Test
     public void findMemberDto() {
         Team team = new Team("teamA");
@@ -210,6 +265,85 @@ class MemberRepositoryTest {
         assertThat(page.hasNext()).isTrue(); // 다음 페이지 여부
     }
 
+    @Test
+    public void memberDtoPage(QueryCount queryCount) {
+        // given
+        Team teamA = new Team("teamA");
+        teamRepository.save(teamA);
+        for (int i = 1; i <= 5; i++) {
+            memberRepository.save(new Member("member" + i, 10, teamA));
+        }
+        em.flush();
+        em.clear();
+        queryCount.reset();
+
+        // when
+        Page<MemberDto> page = memberRepository.findMemberDtoPage(
+                PageRequest.of(0, 3, Sort.by(Sort.Direction.DESC, "username")));
+
+        // then
+        assertThat(page.getContent()).extracting(MemberDto::getTeamName).containsOnly("teamA");
+        assertThat(queryCount.getSelect()).isEqualTo(2); // 컨텐츠 + count, 팀 지연 로딩 없음
+        assertThat(em.unwrap(Session.class).getStatistics().getEntityCount()).isZero(); // 영속성 컨텍스트에 엔티티가 올라오지 않는다
+    }
+
+    @Test
+    public void slicePaging() {
+        // given
+        for (int i = 1; i <= 5; i++) {
+            memberRepository.save(new Member("member" + i, 10));
+        }
+
+        PageRequest pageRequest = PageRequest.of(0, 3, Sort.by(Sort.Direction.DESC, "username"));
+
+        // when
+        Slice<Member> slice = memberRepository.findSliceByAge(10, pageRequest); // count 쿼리 없이 limit + 1 조회
+
+        // then
+        assertThat(slice.getContent().size()).isEqualTo(3);
+        assertThat(slice.getNumber()).isEqualTo(0);
+        assertThat(slice.isFirst()).isTrue();
+        assertThat(slice.hasNext()).isTrue();
+    }
+
+    @Test
+    public void cachedCountPaging() {
+        // given
+        for (int i = 1; i <= 5; i++) {
+            memberRepository.save(new Member("member" + i, 10));
+        }
+        countCache.invalidateAll();
+        double savedBefore = meterRegistry.get("repository.count.saved").tag("mode", "cached").counter().count();
+
+        PageRequest pageRequest = PageRequest.of(0, 3, Sort.by(Sort.Direction.DESC, "username"));
+
+        // when
+        Slice<Member> first = fetchByAge(10, pageRequest);
+        Slice<Member> second = fetchByAge(10, pageRequest); // 두 번째 count는 캐시에서
+
+        memberRepository.bulkAgePlus(10); // 벌크 업데이트는 커밋된 뒤에 count 캐시를 비운다
+        TestTransaction.flagForCommit();
+        TestTransaction.end();
+        Slice<Member> afterBulk = fetchByAge(10, pageRequest);
+        memberRepository.deleteAllInBatch(); // 커밋했으므로 직접 정리
+
+        // then
+        assertThat(first).isInstanceOf(Page.class);
+        assertThat(((Page<Member>) first).getTotalElements()).isEqualTo(5);
+        assertThat(((Page<Member>) second).getTotalElements()).isEqualTo(5);
+        assertThat(((Page<Member>) afterBulk).getTotalElements()).isEqualTo(0);
+
+        double saved = meterRegistry.get("repository.count.saved").tag("mode", "cached").counter().count();
+        assertThat(saved - savedBefore).isEqualTo(1);
+    }
+
+    private Slice<Member> fetchByAge(int age, Pageable pageable) {
+        return countCache.fetch(PagingMode.CACHED_COUNT, pageable,
+                p -> memberRepository.findByAge(age, p),
+                p -> memberRepository.findSliceByAge(age, p),
+                "Member.countByAge", List.of(age), () -> memberRepository.countByAge(age));
+    }
+
     @Test
     public void bulkUpdate() {
         // given
@@ -232,6 +366,97 @@ class MemberRepositoryTest {
         assertThat(resultCount).isEqualTo(3);
     }
 
+    @Test
+    public void versionProbe() {
+        // given
+        Team teamA = teamRepository.save(new Team("teamA"));
+        Member member = memberRepository.save(new Member("member1", 10, teamA));
+        memberRepository.save(new Member("member2", 20, teamA));
+        em.flush();
+        em.clear();
+
+        MemberVersionDto before = memberRepository.findVersionById(member.getId()).orElseThrow();
+        assertThat(before.getLastModifiedDate()).isNotNull();
+
+        // when : 바뀐 게 없으면 같은 ETag
+        assertThat(memberRepository.findVersionById(member.getId()).orElseThrow().eTag()).isEqualTo(before.eTag());
+
+        // 단건 수정
+        memberRepository.findById(member.getId()).orElseThrow().setUsername("renamed");
+        em.flush();
+        MemberVersionDto afterUpdate = memberRepository.findVersionById(member.getId()).orElseThrow();
+
+        // 벌크 업데이트도 version 을 올린다
+        memberRepository.bulkAgePlus(0);
+        MemberVersionDto afterBulk = memberRepository.findVersionById(member.getId()).orElseThrow();
+
+        // then
+        assertThat(afterUpdate.eTag()).isNotEqualTo(before.eTag());
+        assertThat(afterBulk.eTag()).isNotEqualTo(afterUpdate.eTag());
+        assertThat(afterBulk.getLastModifiedDate()).isAfterOrEqualTo(afterUpdate.getLastModifiedDate());
+        assertThat(memberRepository.findVersionById(-1L)).isEmpty();
+    }
+
+    @Test
+    public void listVersion() {
+        // given
+        Team teamA = teamRepository.save(new Team("teamA"));
+        long before = countCache.version();
+
+        // when : 커밋 전에는 그대로, 커밋되면 올라간다
+        memberRepository.save(new Member("member1", 10, teamA));
+        em.flush();
+        long beforeCommit = countCache.version();
+        TestTransaction.flagForCommit();
+        TestTransaction.end();
+        long afterInsert = countCache.version();
+
+        // 롤백된 팀 이름 변경은 그대로
+        renameTeam(teamA.getId(), "teamB", false);
+        long afterRollback = countCache.version();
+
+        // 팀 이름 변경은 목록 본문(teamName)을 바꾼다
+        renameTeam(teamA.getId(), "teamB", true);
+        long afterTeam = countCache.version();
+
+        // 벌크 업데이트
+        TestTransaction.start();
+        memberRepository.bulkAgePlus(0);
+        TestTransaction.flagForCommit();
+        TestTransaction.end();
+        long afterBulk = countCache.version();
+
+        // 일괄 삭제는 엔티티 이벤트가 없어도 올라간다
+        memberRepository.deleteAllInBatch(); // 커밋했으므로 직접 정리
+        long afterBatchDelete = countCache.version();
+        teamRepository.deleteAllInBatch();
+
+        // 다른 인스턴스의 변경은 공유 버전(마지막 수정 시각)으로 드러난다
+        String eTag = countCache.eTag(LocalDateTime.of(2024, 1, 1, 0, 0));
+        String changedElsewhere = countCache.eTag(LocalDateTime.of(2024, 1, 1, 0, 1));
+
+        // then
+        assertThat(beforeCommit).isEqualTo(before);
+        assertThat(afterInsert).isNotEqualTo(before);
+        assertThat(afterRollback).isEqualTo(afterInsert);
+        assertThat(afterTeam).isNotEqualTo(afterInsert);
+        assertThat(afterBulk).isNotEqualTo(afterTeam);
+        assertThat(afterBatchDelete).isNotEqualTo(afterBulk);
+        assertThat(changedElsewhere).isNotEqualTo(eTag);
+    }
+
+    private void renameTeam(Long teamId, String name, boolean commit) {
+        TestTransaction.start();
+        teamRepository.findById(teamId).orElseThrow().setName(name);
+        em.flush();
+        if (commit) {
+            TestTransaction.flagForCommit();
+        } else {
+            TestTransaction.flagForRollback();
+        }
+        TestTransaction.end();
+    }
+
     @Test
     public void findMemberLazy() {
         // given
@@ -284,6 +509,157 @@ class MemberRepositoryTest {
         }
     }
 
+    @Test
+    public void lazyLoadingQueryCount(QueryCount queryCount) {
+        // given
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        teamRepository.save(teamA);
+        teamRepository.save(teamB);
+        memberRepository.save(new Member("lazyMember1", 10, teamA));
+        memberRepository.save(new Member("lazyMember2", 10, teamB));
+        em.flush();
+        em.clear();
+        queryCount.reset();
+
+        // when : 회원 조회 1번 + 팀 배치 로딩 1번 (default_batch_fetch_size 가 없으면 팀마다 1번씩 N+1)
+        for (Member member : memberRepository.findByNames(List.of("lazyMember1", "lazyMember2"))) {
+            System.out.println("member.team = " + member.getTeam().getName());
+        }
+        int lazyCount = queryCount.getSelect();
+
+        em.clear();
+        queryCount.reset();
+
+        // when : fetch join 이면 1번
+        for (Member member : memberRepository.findMemberFetchJoin()) {
+            System.out.println("member.team = " + member.getTeam().getName());
+        }
+
+        // then
+        assertThat(lazyCount).isEqualTo(2);
+        assertThat(queryCount.getSelect()).isEqualTo(1);
+    }
+
+    @Test
+    public void findByNamesInChunks(QueryCount queryCount) {
+        // given
+        memberRepository.save(new Member("inMember1", 10));
+        memberRepository.save(new Member("inMember2", 20));
+        memberRepository.save(new Member("inMember3", 30));
+        em.flush();
+        em.clear();
+
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < 2500; i++) {
+            names.add("noMember" + i);
+        }
+        names.add(0, "inMember1");
+        names.add(1200, "inMember2");
+        names.add("inMember3");
+        names.add("inMember1"); // 다른 청크에 들어가는 중복은 제거된다
+        queryCount.reset();
+
+        // when : 중복 제거 후 2503개 -> 1000 + 1000 + 503 세 번
+        List<Member> result = memberRepository.findByNames(names);
+
+        // then
+        assertThat(result).extracting("username").containsExactly("inMember1", "inMember2", "inMember3");
+        assertThat(queryCount.getSelect()).isEqualTo(3);
+    }
+
+    @Test
+    public void inClausePadding(QueryCount queryCount) {
+        double hits = planCacheHits();
+
+        // when : 파라미터 5, 6, 7, 8 개는 모두 8개로 패딩
+        for (int size = 5; size <= 8; size++) {
+            List<String> names = new ArrayList<>();
+            for (int i = 0; i < size; i++) {
+                names.add("paddingMember" + i);
+            }
+            memberRepository.findByNames(names);
+        }
+
+        // then : SQL 문자열이 하나
+        assertThat(queryCount.getStatements()).hasSize(4);
+        assertThat(new HashSet<>(queryCount.getStatements())).hasSize(1);
+        assertThat(planCacheHits()).isGreaterThan(hits);
+    }
+
+    @Test
+    public void inListChunkedRejectsUnmergeableReturnTypes() {
+        assertThatThrownBy(() -> new InListChunkingInterceptor(PagedChunkedRepository.class))
+                .isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> new InListChunkingInterceptor(SingleChunkedRepository.class))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    interface PagedChunkedRepository {
+        @InListChunked
+        Page<Member> findPageByNames(Collection<String> names, Pageable pageable);
+    }
+
+    interface SingleChunkedRepository {
+        @InListChunked
+        Member findFirstByNames(Collection<String> names);
+    }
+
+    // hibernate-micrometer 의 쿼리 플랜 캐시 적중 수
+    private double planCacheHits() {
+        return meterRegistry.get("hibernate.cache.query.plan").tag("result", "hit").functionCounter().count();
+    }
+
+    @Test
+    public void batchFetchTeams(QueryCount queryCount) {
+        // given : 회원 1000명이 모두 다른 팀 (팀 지연 로딩 최악의 경우)
+        for (int i = 0; i < 1000; i++) {
+            Team team = new Team("batchTeam" + i);
+            em.persist(team);
+            em.persist(new Member("batchMember" + i, i % 100, team));
+        }
+        em.flush();
+        em.clear();
+        em.getEntityManagerFactory().getCache().evictAll(); // 2차 캐시 없이 DB 에서 로딩
+        queryCount.reset();
+
+        // when
+        List<Member> members = memberRepository.findMemberCustom();
+        for (Member member : members) {
+            if (member.getTeam() != null) {
+                member.getTeam().getName();
+            }
+        }
+
+        // then : 회원 1번 + 팀 1000 / 100(default_batch_fetch_size) 번
+        assertThat(members).hasSizeGreaterThanOrEqualTo(1000);
+        assertThat(queryCount.getSelect()).isLessThanOrEqualTo(1 + (members.size() + 99) / 100);
+    }
+
+    @Test
+    public void batchFetchTeamMembers(QueryCount queryCount) {
+        // given : 팀 100개, 팀마다 회원 3명
+        for (int i = 0; i < 100; i++) {
+            Team team = new Team("batchTeam" + i);
+            em.persist(team);
+            for (int j = 0; j < 3; j++) {
+                em.persist(new Member("batchMember" + i + "-" + j, j, team));
+            }
+        }
+        em.flush();
+        em.clear();
+        em.getEntityManagerFactory().getCache().evictAll();
+        queryCount.reset();
+
+        // when
+        List<Team> teams = teamRepository.findAll();
+        int memberCount = teams.stream().mapToInt(team -> team.getMembers().size()).sum();
+
+        // then : 팀 1번 + members 100 / 20(@BatchSize) 번
+        assertThat(memberCount).isGreaterThanOrEqualTo(300);
+        assertThat(queryCount.getSelect()).isLessThanOrEqualTo(1 + (teams.size() + 19) / 20);
+    }
+
     @Test
     public void findMemberEntityGraph() {
         // given
@@ -371,6 +747,37 @@ class MemberRepositoryTest {
         assertThat(result.size()).isEqualTo(1);
     }
 
+    @Test
+    public void specCompiledQuery() {
+        // given
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member1", 30));
+
+        em.flush();
+        em.clear();
+
+        double hitsBefore = meterRegistry.get("compiled.query.cache").tag("result", "hit").counter().count();
+
+        // when : 같은 모양, 다른 값
+        List<Member> result1 = memberRepository.search(MemberSpec.username("member1").and(MemberSpec.teamName("teamA")));
+        List<Member> result2 = memberRepository.search(MemberSpec.username("member2").and(MemberSpec.teamName("teamA")));
+        // teamName 이 비면 조건이 생략되어 다른 모양이 된다
+        List<Member> result3 = memberRepository.search(MemberSpec.username("member1").and(MemberSpec.teamName(null)));
+
+        // then : Criteria 로 실행한 결과와 같다
+        assertThat(result1).extracting("age").containsExactly(10);
+        assertThat(result2).extracting("age").containsExactly(20);
+        assertThat(result3).extracting("age").containsExactlyInAnyOrder(10, 30);
+        assertThat(result3).hasSameSizeAs(memberRepository.findAll(MemberSpec.username("member1").and(MemberSpec.teamName(null))));
+
+        double hits = meterRegistry.get("compiled.query.cache").tag("result", "hit").counter().count();
+        assertThat(hits - hitsBefore).isGreaterThanOrEqualTo(1);
+    }
+
     @Test
     public void queryByExample() {
         // given
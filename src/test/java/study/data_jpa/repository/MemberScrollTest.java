@@ -0,0 +1,144 @@
+package study.data_jpa.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.*;
+import org.springframework.transaction.annotation.Transactional;
+import study.data_jpa.controller.MemberController;
+import study.data_jpa.controller.MemberScrollToken;
+import study.data_jpa.dto.MemberDto;
+import study.data_jpa.dto.ScrollDto;
+import study.data_jpa.entity.Member;
+import study.data_jpa.monitoring.QueryCount;
+import study.data_jpa.monitoring.QueryCountExtension;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest
+@Transactional
+@ExtendWith(QueryCountExtension.class)
+class MemberScrollTest {
+
+    @Autowired MemberRepository memberRepository;
+    @Autowired MemberController memberController;
+    @PersistenceContext
+    EntityManager em;
+
+    @Test
+    public void keysetScroll(QueryCount queryCount) {
+        // given
+        for (int i = 0; i < 10; i++) {
+            memberRepository.save(new Member("member" + i, 10));
+        }
+        memberRepository.save(new Member("other", 20));
+        em.flush();
+        em.clear();
+
+        Sort sort = MemberScrollToken.sort("username", Sort.Direction.DESC);
+
+        // when
+        List<String> usernames = new ArrayList<>();
+        Window<Member> window = memberRepository.findByAge(10, ScrollPosition.keyset(), Limit.of(3), sort);
+        window.forEach(m -> usernames.add(m.getUsername()));
+
+        queryCount.reset();
+        while (window.hasNext()) {
+            // 클라이언트처럼 토큰으로 왕복시켜 다음 페이지 위치를 복원
+            String token = MemberScrollToken.encode(
+                    (KeysetScrollPosition) window.positionAt(window.size() - 1), "username", Sort.Direction.DESC);
+            window = memberRepository.findByAge(10, MemberScrollToken.decode(token).position(), Limit.of(3), sort);
+            window.forEach(m -> usernames.add(m.getUsername()));
+        }
+
+        // then
+        assertThat(usernames).containsExactly(
+                "member9", "member8", "member7", "member6", "member5",
+                "member4", "member3", "member2", "member1", "member0");
+
+        List<String> pageQueries = queryCount.getStatements().stream()
+                .map(String::toLowerCase)
+                .filter(sql -> sql.startsWith("select") && sql.contains("from member"))
+                .toList();
+        assertThat(pageQueries).hasSize(3);
+        for (String sql : pageQueries) {
+            assertThat(sql).doesNotContain("offset"); // 뒤쪽 페이지에도 OFFSET이 없어야 한다
+            assertThat(sql).doesNotContainPattern("limit\\s+\\?\\s*,"); // MySQL 방식의 limit ?,? 도 없어야 한다
+            assertThat(sql).containsPattern("username\\s*<\\s*\\?"); // 마지막 username 이후부터 seek
+        }
+    }
+
+    @Test
+    public void invalidToken() {
+        for (String raw : List.of("username,SIDEWAYS,1,member1", "id,DESC,abc,abc", "age,ASC,1,ten", "password,ASC,1,x")) {
+            String token = Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+            assertThatThrownBy(() -> MemberScrollToken.decode(token)).isInstanceOf(IllegalArgumentException.class);
+        }
+
+        // 값이 없는 토큰은 null 이 될 수 있는 필드에만
+        String noValue = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString("age,ASC,1".getBytes(StandardCharsets.UTF_8));
+        assertThatThrownBy(() -> MemberScrollToken.decode(noValue)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void nullTokenRoundTrip() {
+        // null 은 "null" 문자열, 빈 문자열과 구분된다
+        for (String username : new String[]{null, "null", ""}) {
+            Map<String, Object> keys = new LinkedHashMap<>();
+            keys.put("username", username);
+            keys.put(MemberScrollToken.ID, 1L);
+            MemberScrollToken token = MemberScrollToken.decode(
+                    MemberScrollToken.encode(ScrollPosition.forward(keys), "username", Sort.Direction.DESC));
+            assertThat(token.isInNulls()).isEqualTo(username == null);
+        }
+    }
+
+    @Test
+    public void nullUsernamesComeLast() {
+        // given
+        for (String username : new String[]{"b", null, "a", null, "c", null}) {
+            memberRepository.save(new Member(username, 10));
+        }
+        em.flush();
+        em.clear();
+
+        for (Sort.Direction direction : Sort.Direction.values()) {
+            // when : 페이지 경계가 null 구간 앞, 중간에 걸리도록 2개씩
+            List<String> usernames = new ArrayList<>();
+            List<Long> nullIds = new ArrayList<>();
+            String token = null;
+            do {
+                ScrollDto<MemberDto> page = memberController.scroll(token, 2, "username", direction);
+                page.getContent().forEach(m -> {
+                    usernames.add(m.getUsername());
+                    if (m.getUsername() == null) {
+                        nullIds.add(m.getId());
+                    }
+                });
+                token = page.getNextToken();
+            } while (token != null);
+
+            // then : null 은 방향과 무관하게 맨 뒤, id 는 방향을 따른다
+            List<String> expected = direction.isAscending()
+                    ? Arrays.asList("a", "b", "c", null, null, null)
+                    : Arrays.asList("c", "b", "a", null, null, null);
+            assertThat(usernames).isEqualTo(expected);
+            assertThat(nullIds).isSortedAccordingTo(direction.isAscending()
+                    ? Comparator.<Long>naturalOrder() : Comparator.<Long>reverseOrder());
+        }
+    }
+
+}
@@ -0,0 +1,125 @@
+package study.data_jpa.repository.support;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.data_jpa.entity.Member;
+import study.data_jpa.repository.MemberRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+// 청크마다 커밋하므로 테스트 트랜잭션(@Transactional) 없이 실행하고 직접 정리한다
+@SpringBootTest
+class ChunkedUpdateExecutorTest {
+
+    @Autowired ChunkedUpdateExecutor chunkedUpdateExecutor;
+    @Autowired MemberRepository memberRepository;
+    @Autowired PlatformTransactionManager transactionManager;
+    @Autowired CountCache countCache;
+    @PersistenceContext
+    EntityManager em;
+
+    @AfterEach
+    public void tearDown() {
+        memberRepository.deleteAllInBatch();
+    }
+
+    @Test
+    public void chunkedBulkUpdate() {
+        // given
+        List<Member> members = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            members.add(new Member("member" + i, i));
+        }
+        memberRepository.saveAll(members);
+
+        List<ChunkedUpdateProgress> progresses = new ArrayList<>();
+
+        // when
+        ChunkedUpdateProgress result = chunkedUpdateExecutor.execute(
+                ChunkedUpdate.of(Member.class, "m", "m.age = m.age + 1", "m.age >= :age")
+                        .param("age", 20)
+                        .chunkSize(10)
+                        .onProgress(progresses::add));
+
+        // then
+        assertThat(result.isDone()).isTrue();
+        assertThat(result.affectedRows()).isEqualTo(5);
+        assertThat(progresses).isNotEmpty();
+        assertThat(progresses.get(progresses.size() - 1).affectedRows()).isEqualTo(5);
+        assertThat(memberRepository.findByUsername("member24").get(0).getAge()).isEqualTo(25);
+        assertThat(memberRepository.findByUsername("member19").get(0).getAge()).isEqualTo(19);
+    }
+
+    @Test
+    public void resumeAfterFailure() {
+        // given
+        List<Member> members = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            members.add(new Member("member" + i, 30));
+        }
+        memberRepository.saveAll(members);
+        long firstId = members.get(0).getId();
+
+        // when : 앞 절반까지 커밋된 것으로 보고 이어서 실행
+        ChunkedUpdateProgress result = memberRepository.bulkAgePlusInChunks(20, 3, firstId + 4);
+
+        // then
+        assertThat(result.affectedRows()).isEqualTo(5);
+        assertThat(memberRepository.findById(firstId).get().getAge()).isEqualTo(30);
+        assertThat(memberRepository.findById(members.get(9).getId()).get().getAge()).isEqualTo(31);
+    }
+
+    @Test
+    public void evictOnlyAffectedEntities() {
+        // given
+        Member young = memberRepository.save(new Member("young", 10));
+        Member old = memberRepository.save(new Member("old", 40));
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            Member managedYoung = em.find(Member.class, young.getId());
+            Member managedOld = em.find(Member.class, old.getId());
+            managedOld.setUsername("renamed"); // flush 전 변경
+
+            // when
+            chunkedUpdateExecutor.execute(
+                    ChunkedUpdate.of(Member.class, "m", "m.age = m.age + 1", "m.age >= :age").param("age", 20));
+
+            // then : clearAutomatically 와 달리 바뀌지 않은 엔티티는 영속성 컨텍스트에 남는다
+            assertThat(em.contains(managedYoung)).isTrue();
+            assertThat(em.contains(managedOld)).isFalse();
+        });
+
+        // 청크가 바꾼 엔티티의 flush 전 변경은 버려진다
+        Member reloaded = memberRepository.findById(old.getId()).get();
+        assertThat(reloaded.getAge()).isEqualTo(41);
+        assertThat(reloaded.getUsername()).isEqualTo("old");
+    }
+
+    @Test
+    public void eventCommitsWithChunkNotOuterTransaction() {
+        // given
+        memberRepository.save(new Member("old", 40));
+        long version = countCache.version();
+
+        // when : 바깥 트랜잭션이 롤백돼도
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            chunkedUpdateExecutor.execute(
+                    ChunkedUpdate.of(Member.class, "m", "m.age = m.age + 1", "m.age >= :age").param("age", 20));
+            status.setRollbackOnly();
+        });
+
+        // then : 이미 커밋된 청크 기준으로 목록 버전이 올라가 있다
+        assertThat(countCache.version()).isGreaterThan(version);
+        assertThat(memberRepository.findByUsername("old").get(0).getAge()).isEqualTo(41);
+    }
+
+}
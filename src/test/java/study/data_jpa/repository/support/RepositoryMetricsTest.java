@@ -0,0 +1,71 @@
+package study.data_jpa.repository.support;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.data_jpa.entity.Member;
+import study.data_jpa.monitoring.RepositoryMetricsEndpoint;
+import study.data_jpa.repository.MemberRepository;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest
+@Transactional
+class RepositoryMetricsTest {
+
+    @Autowired MemberRepository memberRepository;
+    @Autowired MeterRegistry meterRegistry;
+    @Autowired RepositoryMetricsEndpoint endpoint;
+
+    @Test
+    public void recordsLatencyAndResultSize() {
+        // given
+        memberRepository.save(new Member("metricsMember", 10));
+        memberRepository.save(new Member("metricsMember", 20));
+        long before = count("findListByUsername", "SUCCESS");
+
+        // when
+        memberRepository.findListByUsername("metricsMember");
+
+        // then
+        assertThat(count("findListByUsername", "SUCCESS")).isEqualTo(before + 1);
+        assertThat(meterRegistry.get("repository.method.result.size")
+                .tag("repository", "MemberRepository").tag("method", "findListByUsername")
+                .summary().max()).isEqualTo(2);
+    }
+
+    @Test
+    public void recordsErrors() {
+        assertThatThrownBy(() -> memberRepository.findById(null)).isInstanceOf(RuntimeException.class);
+
+        assertThat(meterRegistry.get("repository.method")
+                .tag("repository", "MemberRepository").tag("method", "findById").tag("outcome", "ERROR")
+                .timer().count()).isGreaterThanOrEqualTo(1);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void endpoint() {
+        memberRepository.findListByUsername("metricsMember");
+
+        Map<String, Object> result = endpoint.repositories();
+
+        Map<String, Map<String, Object>> methods = (Map<String, Map<String, Object>>) result.get("methods");
+        assertThat(methods).containsKey("MemberRepository.findListByUsername");
+        assertThat(methods.get("MemberRepository.findListByUsername")).containsKeys("count", "meanMs", "maxMs");
+        assertThat((Map<String, Object>) result.get("hibernate")).containsEntry("statisticsEnabled", true);
+    }
+
+    private long count(String method, String outcome) {
+        Timer timer = meterRegistry.find("repository.method")
+                .tag("repository", "MemberRepository").tag("method", method).tag("outcome", outcome)
+                .timer();
+        return timer == null ? 0 : timer.count();
+    }
+
+}
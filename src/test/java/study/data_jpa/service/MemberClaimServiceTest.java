@@ -0,0 +1,166 @@
+package study.data_jpa.service;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import study.data_jpa.entity.Member;
+import study.data_jpa.repository.MemberRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntSupplier;
+
+import static org.assertj.core.api.Assertions.*;
+
+// SKIP LOCKED 를 지원하는 실제 MySQL 8 컨테이너에서 실행 (도커가 없으면 건너뜀)
+@SpringBootTest
+@Testcontainers(disabledWithoutDocker = true)
+class MemberClaimServiceTest {
+
+    static final int DONE_AGE = 100; // 처리된 회원은 나이를 100 으로 바꾼다
+
+    @Container
+    @ServiceConnection
+    static MySQLContainer<?> mysql = new MySQLContainer<>("mysql:8.0");
+
+    @Autowired MemberClaimService memberClaimService;
+    @Autowired MemberRepository memberRepository;
+    @Autowired PlatformTransactionManager transactionManager;
+    @PersistenceContext
+    EntityManager em;
+
+    @AfterEach
+    public void tearDown() {
+        memberRepository.deleteAllInBatch();
+    }
+
+    @Test
+    public void concurrentClaimsAreDisjoint() throws Exception {
+        // given
+        saveBacklog(20);
+        CountDownLatch firstClaimed = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Set<Long> firstIds = ConcurrentHashMap.newKeySet();
+        Set<Long> secondIds = ConcurrentHashMap.newKeySet();
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            // when : 첫 번째 워커가 10건을 잡고 있는 동안
+            Future<Integer> first = executor.submit(() -> memberClaimService.processBatch(DONE_AGE, 10, member -> {
+                firstIds.add(member.getId());
+                if (firstIds.size() == 10) {
+                    firstClaimed.countDown();
+                    await(release);
+                }
+            }));
+            firstClaimed.await();
+
+            // 두 번째 워커는 기다리지 않고 나머지 10건을 가져간다
+            int second = memberClaimService.processBatch(DONE_AGE, 10, member -> secondIds.add(member.getId()));
+            release.countDown();
+
+            // then
+            assertThat(first.get()).isEqualTo(10);
+            assertThat(second).isEqualTo(10);
+            assertThat(secondIds).doesNotContainAnyElementsOf(firstIds);
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @Tag("benchmark")
+    public void skipLockedVsPessimisticLock() throws Exception {
+        int backlog = 400;
+        int workers = 8;
+        int batchSize = 10;
+
+        saveBacklog(backlog);
+        long skipLocked = drain(workers, () ->
+                memberClaimService.processBatch(DONE_AGE, batchSize, this::work));
+
+        memberRepository.deleteAllInBatch();
+        saveBacklog(backlog);
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        long pessimistic = drain(workers, () -> tx.execute(status -> {
+            // 기존 findLockByUsername 과 같은 PESSIMISTIC_WRITE (잠긴 행은 기다린다)
+            List<Member> members = em.createQuery("select m from Member m where m.age < :age order by m.id", Member.class)
+                    .setParameter("age", DONE_AGE)
+                    .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                    .setMaxResults(batchSize)
+                    .getResultList();
+            members.forEach(this::work);
+            return members.size();
+        }));
+
+        System.out.printf("skip locked : %d rows, %d workers, %d ms%n", backlog, workers, skipLocked);
+        System.out.printf("pessimistic : %d rows, %d workers, %d ms%n", backlog, workers, pessimistic);
+        assertThat(memberRepository.count()).isEqualTo(backlog);
+    }
+
+    private void saveBacklog(int count) {
+        List<Member> members = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            members.add(new Member("member" + i, i % DONE_AGE));
+        }
+        memberRepository.saveAll(members);
+    }
+
+    private void work(Member member) {
+        try {
+            Thread.sleep(5); // 회원 한 건 처리 비용
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        member.setAge(DONE_AGE);
+    }
+
+    // 모든 워커가 더 가져갈 행이 없을 때까지 반복하고 걸린 시간(ms)을 돌려준다
+    private static long drain(int workers, IntSupplier claimBatch) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(workers);
+        long start = System.currentTimeMillis();
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < workers; i++) {
+                futures.add(executor.submit(() -> {
+                    while (claimBatch.getAsInt() > 0) {
+                        // 다음 배치
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return System.currentTimeMillis() - start;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
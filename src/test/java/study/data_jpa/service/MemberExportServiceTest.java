@@ -0,0 +1,64 @@
+package study.data_jpa.service;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+// ./gradlew largeExportTest 로 -Xmx96m 에서 실행
+@Tag("large-export")
+@SpringBootTest
+@ActiveProfiles("h2")
+class MemberExportServiceTest {
+
+    static final int MEMBER_COUNT = 500_000;
+
+    @Autowired MemberExportService memberExportService;
+    @Autowired JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void exportLargeDataset() throws IOException {
+        // given
+        jdbcTemplate.update("insert into team (team_id, name, version) values (1, 'teamA', 0)");
+        List<Object[]> batch = new ArrayList<>();
+        for (int i = 1; i <= MEMBER_COUNT; i++) {
+            batch.add(new Object[]{(long) i, "member" + i, i % 100, i % 2 == 0 ? 1L : null});
+            if (batch.size() == 10_000) {
+                jdbcTemplate.batchUpdate("insert into member (member_id, username, age, team_id, version) values (?, ?, ?, ?, 0)", batch);
+                batch.clear();
+            }
+        }
+
+        // when
+        LineCountingOutputStream out = new LineCountingOutputStream();
+        long exported = memberExportService.export(out, ExportFormat.NDJSON);
+
+        // then
+        assertThat(exported).isEqualTo(MEMBER_COUNT);
+        assertThat(out.lines).isEqualTo(MEMBER_COUNT);
+    }
+
+    // 내보낸 내용을 메모리에 쌓지 않고 줄 수만 센다
+    static class LineCountingOutputStream extends OutputStream {
+
+        long lines;
+
+        @Override
+        public void write(int b) {
+            if (b == '\n') {
+                lines++;
+            }
+        }
+
+    }
+
+}
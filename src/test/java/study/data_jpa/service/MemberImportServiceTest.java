@@ -0,0 +1,96 @@
+package study.data_jpa.service;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import study.data_jpa.dto.MemberImportDto;
+import study.data_jpa.dto.MemberImportResult;
+import study.data_jpa.entity.Member;
+import study.data_jpa.entity.Team;
+import study.data_jpa.repository.MemberRepository;
+import study.data_jpa.repository.TeamRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("h2")
+class MemberImportServiceTest {
+
+    @Autowired MemberImportService memberImportService;
+    @Autowired MemberRepository memberRepository;
+    @Autowired TeamRepository teamRepository;
+    @PersistenceContext
+    EntityManager em;
+
+    @BeforeEach
+    public void clean() {
+        memberRepository.deleteAllInBatch();
+        teamRepository.deleteAllInBatch();
+    }
+
+    @Test
+    public void importMembers() {
+        // given
+        teamRepository.save(new Team("teamA"));
+        List<MemberImportDto> rows = rows(2500, 3); // 청크 3개, 팀 3개 (teamA는 이미 존재)
+
+        // when
+        MemberImportResult result = memberImportService.importMembers(rows.iterator());
+
+        // then
+        assertThat(result.getImportedMembers()).isEqualTo(2500);
+        assertThat(result.getCreatedTeams()).isEqualTo(2); // teamB, teamC 만 새로 생성
+        assertThat(memberRepository.count()).isEqualTo(2500);
+        assertThat(teamRepository.count()).isEqualTo(3);
+    }
+
+    @Test
+    @Tag("benchmark")
+    public void saveLoopVsBatchImport() {
+        int count = 20_000;
+        List<MemberImportDto> rows = rows(count, 10);
+
+        // 기존 방식: 팀을 찾아서 한 건씩 save
+        List<Team> teams = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            teams.add(teamRepository.save(new Team("team" + (char) ('A' + i))));
+        }
+        long start = System.currentTimeMillis();
+        for (int i = 0; i < count; i++) {
+            MemberImportDto dto = rows.get(i);
+            Member member = new Member(dto.getUsername(), dto.getAge());
+            member.setTeam(teams.get(i % 10));
+            memberRepository.save(member);
+        }
+        long saveLoopMillis = Math.max(1, System.currentTimeMillis() - start);
+
+        clean();
+
+        // 배치 import
+        MemberImportResult result = memberImportService.importMembers(rows.iterator());
+
+        System.out.printf("save loop    : %d rows, %d ms, %.0f rows/sec%n",
+                count, saveLoopMillis, count * 1000.0 / saveLoopMillis);
+        System.out.printf("batch import : %d rows, %d ms, %.0f rows/sec%n",
+                result.getImportedMembers(), result.getElapsedMillis(), result.getRowsPerSecond());
+
+        assertThat(result.getImportedMembers()).isEqualTo(count);
+    }
+
+    private static List<MemberImportDto> rows(int count, int teamCount) {
+        List<MemberImportDto> rows = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            rows.add(new MemberImportDto("member" + i, i % 100, "team" + (char) ('A' + i % teamCount)));
+        }
+        return rows;
+    }
+
+}
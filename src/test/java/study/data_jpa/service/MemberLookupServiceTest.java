@@ -0,0 +1,159 @@
+package study.data_jpa.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.data_jpa.dto.MemberDto;
+import study.data_jpa.entity.Member;
+import study.data_jpa.entity.Team;
+import study.data_jpa.repository.MemberRepository;
+import study.data_jpa.repository.TeamRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.*;
+
+// 다른 스레드에서도 보여야 하므로 트랜잭션 없이 저장하고 직접 지운다
+@SpringBootTest
+class MemberLookupServiceTest {
+
+    @Autowired MemberLookupService memberLookupService;
+    @Autowired MemberRepository memberRepository;
+    @Autowired TeamRepository teamRepository;
+    @Autowired MeterRegistry meterRegistry;
+    @Autowired PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    public void setUp() {
+        memberLookupService.invalidateAll();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        memberRepository.deleteAllInBatch();
+        teamRepository.deleteAllInBatch();
+        memberLookupService.invalidateAll();
+    }
+
+    @Test
+    public void concurrentLookupsShareOneLoad() throws Exception {
+        // given
+        Member member = memberRepository.save(new Member("member1", 10));
+        double before = loads();
+
+        // when : 같은 id 를 동시에 32번 조회
+        int threads = 32;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<MemberDto>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < threads; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return memberLookupService.find(member.getId());
+                }));
+            }
+            start.countDown();
+
+            // then
+            for (Future<MemberDto> result : results) {
+                assertThat(result.get().getUsername()).isEqualTo("member1");
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(loads() - before).isEqualTo(1);
+    }
+
+    @Test
+    public void missingMemberIsNotCached() {
+        double before = loads();
+
+        assertThat(memberLookupService.find(-1L)).isNull();
+        assertThat(memberLookupService.find(-1L)).isNull();
+
+        assertThat(loads() - before).isEqualTo(2);
+    }
+
+    @Test
+    public void findAllLoadsOnlyUncachedIds() {
+        // given
+        Member member1 = memberRepository.save(new Member("member1", 10));
+        Member member2 = memberRepository.save(new Member("member2", 20));
+        Member member3 = memberRepository.save(new Member("member3", 30));
+        memberLookupService.find(member2.getId());
+        double before = loads();
+
+        // when : 순서대로, 없는 id 는 빠진다
+        List<MemberDto> result = memberLookupService.findAll(
+                List.of(member3.getId(), -1L, member2.getId(), member1.getId()));
+
+        // then
+        assertThat(result).extracting(MemberDto::getUsername).containsExactly("member3", "member2", "member1");
+        assertThat(loads() - before).isEqualTo(1); // member1, member3 를 findAllById 한 번으로
+
+        // 이번에 읽은 회원도 캐시에 남는다
+        memberLookupService.find(member1.getId());
+        assertThat(loads() - before).isEqualTo(1);
+    }
+
+    @Test
+    public void loadsTeamName() {
+        // given
+        Team team = teamRepository.save(new Team("teamA"));
+        Member member = memberRepository.save(new Member("member1", 10, team));
+
+        // when & then : 단건, 여러 건 모두 팀 이름까지
+        assertThat(memberLookupService.find(member.getId()).getTeamName()).isEqualTo("teamA");
+        memberLookupService.invalidateAll();
+        assertThat(memberLookupService.findAll(List.of(member.getId())))
+                .extracting(MemberDto::getTeamName)
+                .containsExactly("teamA");
+    }
+
+    @Test
+    public void bulkUpdateInvalidates() {
+        Member member = memberRepository.save(new Member("member1", 10));
+        memberLookupService.find(member.getId());
+        double before = loads();
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> memberRepository.bulkAgePlus(0));
+        memberLookupService.find(member.getId());
+
+        assertThat(loads() - before).isEqualTo(1);
+    }
+
+    @Test
+    public void uncommittedChangesAreNotShared() {
+        Member member = memberRepository.save(new Member("member1", 10));
+
+        // when : 읽기-쓰기 트랜잭션 안에서 flush 한 변경을 읽고 롤백
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            memberRepository.findById(member.getId()).orElseThrow().setUsername("renamed");
+            memberRepository.flush();
+            assertThat(memberLookupService.find(member.getId()).getUsername()).isEqualTo("renamed");
+            assertThat(memberLookupService.findAll(List.of(member.getId())))
+                    .extracting(MemberDto::getUsername)
+                    .containsExactly("renamed");
+            status.setRollbackOnly();
+        });
+
+        // then : 캐시에 남지 않았으므로 커밋된 값을 읽는다
+        assertThat(memberLookupService.find(member.getId()).getUsername()).isEqualTo("member1");
+    }
+
+    private double loads() {
+        return meterRegistry.counter("member.lookup.loads").count();
+    }
+
+}
@@ -0,0 +1,167 @@
+package study.data_jpa.service;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.transaction.annotation.Transactional;
+import study.data_jpa.dto.MemberDto;
+import study.data_jpa.entity.Member;
+import study.data_jpa.entity.Team;
+import study.data_jpa.repository.MemberRepository;
+import study.data_jpa.repository.TeamRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest
+@Transactional
+class MemberSearchServiceTest {
+
+    @Autowired MemberSearchService memberSearchService;
+    @Autowired MemberRepository memberRepository;
+    @Autowired TeamRepository teamRepository;
+    @Autowired EntityManager em;
+
+    @Test
+    public void prefixIgnoresCase() {
+        // given
+        Team teamA = teamRepository.save(new Team("teamA"));
+        memberRepository.save(new Member("Alice Kim", 10, teamA));
+        memberRepository.save(new Member("alex", 20));
+        memberRepository.save(new Member("Bob", 30));
+        memberRepository.save(new Member("al_x", 40));
+        em.flush();
+        em.clear();
+
+        // when
+        Slice<MemberDto> result = memberSearchService.searchByPrefix("AL", PageRequest.of(0, 10));
+        Slice<MemberDto> underscore = memberSearchService.searchByPrefix("al_", PageRequest.of(0, 10)); // _ 는 패턴이 아니라 글자
+
+        // then : username_key 순서
+        assertThat(result).extracting(MemberDto::getUsername).containsExactly("al_x", "alex", "Alice Kim");
+        assertThat(result.getContent().get(2).getTeamName()).isEqualTo("teamA");
+        assertThat(underscore).extracting(MemberDto::getUsername).containsExactly("al_x");
+        assertThat(memberSearchService.searchByPrefix(" ", PageRequest.of(0, 10))).isEmpty();
+    }
+
+    @Test
+    public void prefixSlice() {
+        for (int i = 0; i < 5; i++) {
+            memberRepository.save(new Member("user" + i, i));
+        }
+        em.flush();
+        em.clear();
+
+        Slice<MemberDto> first = memberSearchService.searchByPrefix("user", PageRequest.of(0, 3));
+        Slice<MemberDto> second = memberSearchService.searchByPrefix("user", first.nextPageable());
+
+        assertThat(first).extracting(MemberDto::getUsername).containsExactly("user0", "user1", "user2");
+        assertThat(first.hasNext()).isTrue();
+        assertThat(second).extracting(MemberDto::getUsername).containsExactly("user3", "user4");
+        assertThat(second.hasNext()).isFalse();
+    }
+
+    @Test
+    public void tokensMatchAll() {
+        // given
+        memberRepository.save(new Member("Kim Min-su", 10));
+        memberRepository.save(new Member("lee.min.ho", 20));
+        memberRepository.save(new Member("kim_jisoo", 30));
+        em.flush();
+        em.clear();
+
+        // when
+        Slice<MemberDto> min = memberSearchService.searchByTokens("MIN", PageRequest.of(0, 10));
+        Slice<MemberDto> kimMin = memberSearchService.searchByTokens("kim min", PageRequest.of(0, 10));
+
+        // then
+        assertThat(min).extracting(MemberDto::getUsername).containsExactlyInAnyOrder("Kim Min-su", "lee.min.ho");
+        assertThat(kimMin).extracting(MemberDto::getUsername).containsExactly("Kim Min-su");
+        assertThat(memberSearchService.searchByTokens("--", PageRequest.of(0, 10))).isEmpty();
+        assertThatThrownBy(() -> memberSearchService.searchByTokens("a b c d e f g h i j k", PageRequest.of(0, 10)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void tokenSlice() {
+        // given : common 은 모두, rare 는 일부만
+        for (int i = 0; i < 6; i++) {
+            memberRepository.save(new Member(i % 2 == 0 ? "common rare" + " " + i : "common " + i, i));
+        }
+        em.flush();
+        em.clear();
+
+        // when : 긴 토큰(common)이 조회를 이끌고 rare 는 exists 로 확인, id 순
+        Slice<MemberDto> first = memberSearchService.searchByTokens("rare common", PageRequest.of(0, 2));
+        Slice<MemberDto> second = memberSearchService.searchByTokens("rare common", first.nextPageable());
+
+        // then
+        assertThat(first).extracting(MemberDto::getUsername).containsExactly("common rare 0", "common rare 2");
+        assertThat(first.hasNext()).isTrue();
+        assertThat(second).extracting(MemberDto::getUsername).containsExactly("common rare 4");
+        assertThat(second.hasNext()).isFalse();
+    }
+
+    @Test
+    @Tag("benchmark")
+    public void drivingTokenVsGroupBy() {
+        // given : 모든 회원이 가진 토큰(common)과 절반이 가진 토큰(half)
+        int memberCount = 20_000;
+        List<Member> members = new ArrayList<>();
+        for (int i = 0; i < memberCount; i++) {
+            members.add(new Member(i % 2 == 0 ? "common half " + i : "common " + i, i % 100));
+        }
+        memberRepository.saveAll(members);
+        em.flush();
+        em.clear();
+        PageRequest firstPage = PageRequest.of(0, 20);
+
+        // when : 이전 방식 (토큰마다 일치하는 행을 모두 읽어 group by 로 교집합)
+        long start = System.nanoTime();
+        List<Long> groupBy = em.createQuery("select k.id from Member k join k.usernameTokens tk where tk in :tokens"
+                        + " group by k.id having count(tk) = :tokenCount order by k.id", Long.class)
+                .setParameter("tokens", List.of("common", "half"))
+                .setParameter("tokenCount", 2L)
+                .setMaxResults(firstPage.getPageSize())
+                .getResultList();
+        long groupByNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        Slice<MemberDto> driving = memberSearchService.searchByTokens("common half", firstPage);
+        long drivingNanos = System.nanoTime() - start;
+
+        // then
+        System.out.printf("group by      : %d members, %.1f ms%n", memberCount, groupByNanos / 1_000_000.0);
+        System.out.printf("driving token : %d members, %.1f ms%n", memberCount, drivingNanos / 1_000_000.0);
+        assertThat(driving).extracting(MemberDto::getId).containsExactlyElementsOf(groupBy);
+        assertThat(driving.hasNext()).isTrue();
+    }
+
+    @Test
+    public void renameUpdatesSearchKeys() {
+        // given
+        Member member = memberRepository.save(new Member("old name", 10));
+        em.flush();
+        em.clear();
+
+        // when
+        memberRepository.findById(member.getId()).orElseThrow().setUsername("New Title");
+        em.flush();
+        em.clear();
+
+        // then
+        assertThat(memberSearchService.searchByPrefix("old", PageRequest.of(0, 10))).isEmpty();
+        assertThat(memberSearchService.searchByTokens("name", PageRequest.of(0, 10))).isEmpty();
+        assertThat(memberSearchService.searchByPrefix("new t", PageRequest.of(0, 10)))
+                .extracting(MemberDto::getUsername).containsExactly("New Title");
+        assertThat(memberSearchService.searchByTokens("title", PageRequest.of(0, 10)))
+                .extracting(MemberDto::getUsername).containsExactly("New Title");
+    }
+
+}
@@ -0,0 +1,104 @@
+package study.data_jpa.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import study.data_jpa.entity.Member;
+import study.data_jpa.repository.MemberRepository;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest
+class MemberServiceTest {
+
+    @Autowired MemberService memberService;
+    @Autowired MemberRepository memberRepository;
+    @Autowired ConflictRetryTemplate retryTemplate;
+    @Autowired MeterRegistry meterRegistry;
+
+    @AfterEach
+    public void tearDown() {
+        memberRepository.deleteAllInBatch();
+    }
+
+    @Test
+    public void retryOnConflict() {
+        // given
+        Member member = memberRepository.save(new Member("member1", 10));
+        AtomicInteger attempts = new AtomicInteger();
+
+        // when : 첫 번째 시도 중에 다른 트랜잭션이 같은 회원을 먼저 수정하고 커밋
+        Member result = retryTemplate.execute("test.conflict", () -> {
+            Member loaded = memberRepository.findById(member.getId()).orElseThrow();
+            if (attempts.incrementAndGet() == 1) {
+                memberService.rename(member.getId(), "concurrent");
+            }
+            loaded.setAge(loaded.getAge() + 1);
+            return loaded;
+        });
+
+        // then
+        Member findMember = memberRepository.findById(member.getId()).orElseThrow();
+        assertThat(attempts.get()).isEqualTo(2);
+        assertThat(findMember.getUsername()).isEqualTo("concurrent"); // 먼저 커밋된 변경이 사라지지 않는다
+        assertThat(findMember.getAge()).isEqualTo(11);
+        assertThat(findMember.getVersion()).isEqualTo(result.getVersion());
+        assertThat(meterRegistry.counter("conflict.retry.retries", "operation", "test.conflict").count()).isEqualTo(1);
+    }
+
+    @Test
+    public void exhaustedRetries() {
+        Member member = memberRepository.save(new Member("member1", 10));
+
+        // 매번 충돌하면 max-attempts 이후 예외
+        assertThatThrownBy(() -> retryTemplate.execute("test.exhausted", () -> {
+            Member loaded = memberRepository.findById(member.getId()).orElseThrow();
+            memberService.addAge(member.getId(), 1);
+            loaded.setUsername("lost");
+            return loaded;
+        })).isInstanceOf(OptimisticLockingFailureException.class);
+
+        assertThat(meterRegistry.counter("conflict.retry.exhausted", "operation", "test.exhausted").count()).isEqualTo(1);
+    }
+
+    @Test
+    public void concurrentUpdatesWithoutLocks() throws Exception {
+        // given
+        Member member = memberRepository.save(new Member("member1", 0));
+
+        // when : 4개 스레드가 락 없이 동시에 나이를 25번씩 증가
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Future<?>[] futures = new Future<?>[4];
+            for (int i = 0; i < 4; i++) {
+                futures[i] = executor.submit(() -> {
+                    for (int j = 0; j < 25; j++) {
+                        try {
+                            memberService.addAge(member.getId(), 1);
+                        } catch (OptimisticLockingFailureException e) {
+                            // 재시도를 모두 소진한 경우는 반영되지 않는다
+                        }
+                    }
+                });
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // then : 반영된 증가분과 버전이 정확히 일치 (lost update 없음)
+        Member findMember = memberRepository.findById(member.getId()).orElseThrow();
+        assertThat(findMember.getVersion()).isEqualTo((long) findMember.getAge());
+    }
+
+}
@@ -0,0 +1,133 @@
+package study.data_jpa.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.data_jpa.dto.TeamAggregateDto;
+import study.data_jpa.entity.Member;
+import study.data_jpa.entity.Team;
+import study.data_jpa.repository.MemberRepository;
+import study.data_jpa.repository.TeamRepository;
+
+import static org.assertj.core.api.Assertions.*;
+
+// 집계는 커밋 직전에 반영되므로 트랜잭션을 테스트 안에서 직접 커밋한다
+@SpringBootTest
+class TeamAggregateServiceTest {
+
+    @Autowired MemberRepository memberRepository;
+    @Autowired TeamRepository teamRepository;
+    @Autowired MemberService memberService;
+    @Autowired TeamAggregateService teamAggregateService;
+    @Autowired JdbcTemplate jdbcTemplate;
+    @Autowired PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    public void tearDown() {
+        memberRepository.deleteAllInBatch();
+        teamRepository.deleteAllInBatch();
+    }
+
+    @Test
+    public void incrementalAggregates() {
+        // given
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        Team teamA = teamRepository.save(new Team("teamA"));
+        Team teamB = teamRepository.save(new Team("teamB"));
+        Long[] ids = tx.execute(status -> {
+            Team a = teamRepository.findById(teamA.getId()).orElseThrow();
+            Member member1 = memberRepository.save(new Member("member1", 10, a));
+            Member member2 = memberRepository.save(new Member("member2", 20, a));
+            Member member3 = memberRepository.save(new Member("member3", 40, a));
+            return new Long[]{member1.getId(), member2.getId(), member3.getId()};
+        });
+        assertAggregate(teamA.getId(), 3, 70, 10, 40);
+
+        // when : 이동, 나이 변경, 삭제
+        memberService.moveTeam(ids[2], teamB.getId());
+        assertAggregate(teamA.getId(), 2, 30, 10, 20);
+        assertAggregate(teamB.getId(), 1, 40, 40, 40);
+
+        memberService.addAge(ids[0], 5);
+        assertAggregate(teamA.getId(), 2, 35, 15, 20);
+
+        memberRepository.deleteById(ids[1]);
+        assertAggregate(teamA.getId(), 1, 15, 15, 15);
+
+        memberRepository.deleteById(ids[0]);
+        assertAggregate(teamA.getId(), 0, 0, null, null);
+
+        assertThat(teamRepository.findAggregateById(teamB.getId()).orElseThrow().getAgeAverage()).isEqualTo(40.0);
+    }
+
+    @Test
+    public void rollbackKeepsAggregates() {
+        Team team = teamRepository.save(new Team("teamA"));
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+
+        tx.executeWithoutResult(status -> {
+            memberRepository.save(new Member("member1", 10, teamRepository.findById(team.getId()).orElseThrow()));
+            memberRepository.flush();
+            status.setRollbackOnly();
+        });
+
+        assertAggregate(team.getId(), 0, 0, null, null);
+    }
+
+    @Test
+    public void bulkUpdateRecomputes() {
+        Team team = teamRepository.save(new Team("teamA"));
+        Team other = teamRepository.save(new Team("teamB"));
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            Team t = teamRepository.findById(team.getId()).orElseThrow();
+            memberRepository.save(new Member("member1", 10, t));
+            memberRepository.save(new Member("member2", 30, t));
+            memberRepository.save(new Member("member3", 5, teamRepository.findById(other.getId()).orElseThrow()));
+        });
+        // 벌크 업데이트와 무관한 팀의 집계를 일부러 어긋나게 만든다
+        jdbcTemplate.update("update team set member_count = 7 where team_id = ?", other.getId());
+
+        // 엔티티 이벤트 없이 나이를 바꾼다, 롤백되면 다시 계산하지 않는다
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            memberRepository.bulkAgePlus(20);
+            status.setRollbackOnly();
+        });
+        assertAggregate(team.getId(), 2, 40, 10, 30);
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> memberRepository.bulkAgePlus(20));
+
+        // then : 바뀐 회원(member2)의 팀만 다시 계산한다
+        assertAggregate(team.getId(), 2, 41, 10, 31);
+        assertThat(teamRepository.findAggregateById(other.getId()).orElseThrow().getMemberCount()).isEqualTo(7);
+    }
+
+    @Test
+    public void reconcileFixesDrift() {
+        Team team = teamRepository.save(new Team("teamA"));
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                memberRepository.save(new Member("member1", 10, teamRepository.findById(team.getId()).orElseThrow())));
+
+        // 집계를 거치지 않고 SQL 로 직접 바꿔 불일치를 만든다
+        jdbcTemplate.update("update member set age = 50 where team_id = ?", team.getId());
+        jdbcTemplate.update("update team set member_count = 7 where team_id = ?", team.getId());
+
+        int corrected = teamAggregateService.reconcile();
+
+        assertThat(corrected).isEqualTo(1);
+        assertAggregate(team.getId(), 1, 50, 50, 50);
+        assertThat(teamAggregateService.reconcile()).isZero();
+    }
+
+    private void assertAggregate(Long teamId, long count, long ageSum, Integer min, Integer max) {
+        TeamAggregateDto aggregate = teamRepository.findAggregateById(teamId).orElseThrow();
+        assertThat(aggregate.getMemberCount()).isEqualTo(count);
+        assertThat(aggregate.getAgeSum()).isEqualTo(ageSum);
+        assertThat(aggregate.getAgeMin()).isEqualTo(min);
+        assertThat(aggregate.getAgeMax()).isEqualTo(max);
+    }
+
+}